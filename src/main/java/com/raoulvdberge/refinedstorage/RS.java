@@ -1,6 +1,9 @@
 package com.raoulvdberge.refinedstorage;
 
+import com.raoulvdberge.refinedstorage.apiimpl.autocrafting.CraftingCalculationExecutor;
 import com.raoulvdberge.refinedstorage.command.CommandCreateDisk;
+import com.raoulvdberge.refinedstorage.command.CommandNetworkNodes;
+import com.raoulvdberge.refinedstorage.command.CommandNetworkStats;
 import com.raoulvdberge.refinedstorage.item.ItemCover;
 import com.raoulvdberge.refinedstorage.proxy.ProxyCommon;
 import net.minecraft.creativetab.CreativeTabs;
@@ -37,6 +40,7 @@ public final class RS {
 
     public RSConfig config;
     public final SimpleNetworkWrapper network = NetworkRegistry.INSTANCE.newSimpleChannel(ID);
+    public final CraftingCalculationExecutor craftingCalculationExecutor = new CraftingCalculationExecutor();
     public final CreativeTabs tab = new CreativeTabs(ID) {
         @Override
         public ItemStack createIcon() {
@@ -74,6 +78,8 @@ public final class RS {
     @EventHandler
     public void onServerStarting(FMLServerStartingEvent e) {
         e.registerServerCommand(new CommandCreateDisk());
+        e.registerServerCommand(new CommandNetworkNodes());
+        e.registerServerCommand(new CommandNetworkStats());
     }
 
     @EventHandler
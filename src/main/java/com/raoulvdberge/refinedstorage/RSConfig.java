@@ -59,6 +59,7 @@ public class RSConfig {
     public int maxRowsStretch;
     public boolean largeFont;
     public boolean detailedTooltip;
+    public int gridSyncPageSize;
     //endregion
 
     //region Wireless Transmitter
@@ -119,6 +120,10 @@ public class RSConfig {
 
     //region Autocrafting
     public int calculationTimeoutMs;
+    public int calculationThreads;
+    public int calculationQueueLimitPerNetwork;
+    public int calculationQueueLimitPerPlayer;
+    public int taskUpdateTimeBudgetMs;
     //endregion
 
     //region Categories
@@ -209,6 +214,7 @@ public class RSConfig {
         maxRowsStretch = config.getInt("maxRowsStretch", GRID, Integer.MAX_VALUE, 3, Integer.MAX_VALUE, "The maximum amount of rows that the Grid can show when stretched");
         largeFont = config.getBoolean("largeFont", GRID, false, "Whether the Grid should use a large font for stack quantity display");
         detailedTooltip = config.getBoolean("detailedTooltip", GRID, true, "Whether the Grid should display a detailed tooltip when hovering over an item or fluid");
+        gridSyncPageSize = config.getInt("syncPageSize", GRID, 1000, 0, Integer.MAX_VALUE, "The maximum amount of stacks that are sent to the Grid per tick when it's opened, the first stacks show up right away and the rest follows over the next ticks (0 = send everything at once)");
         //endregion
 
         //region Wireless Transmitter
@@ -269,6 +275,10 @@ public class RSConfig {
 
         //region Autocrafting
         calculationTimeoutMs = config.getInt("calculationTimeoutMs", AUTOCRAFTING, 5000, 5000, Integer.MAX_VALUE, "The autocrafting calculation timeout in milliseconds, tasks taking longer than this to calculate (NOT execute) are cancelled to avoid server strain");
+        calculationThreads = config.getInt("calculationThreads", AUTOCRAFTING, 2, 1, 64, "The amount of threads that autocrafting calculations requested from a grid run on");
+        calculationQueueLimitPerNetwork = config.getInt("calculationQueueLimitPerNetwork", AUTOCRAFTING, 8, 1, Integer.MAX_VALUE, "The maximum amount of autocrafting calculations that can be queued or running for a single network");
+        calculationQueueLimitPerPlayer = config.getInt("calculationQueueLimitPerPlayer", AUTOCRAFTING, 2, 1, Integer.MAX_VALUE, "The maximum amount of autocrafting calculations that can be queued or running for a single player");
+        taskUpdateTimeBudgetMs = config.getInt("taskUpdateTimeBudgetMs", AUTOCRAFTING, 10, 1, Integer.MAX_VALUE, "The time in milliseconds that a single network can spend on updating its autocrafting tasks per tick, the tasks that don't fit in are updated first in the next tick");
         //endregion
 
         if (config.hasChanged()) {
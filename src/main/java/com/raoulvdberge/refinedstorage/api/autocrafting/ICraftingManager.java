@@ -2,8 +2,10 @@ package com.raoulvdberge.refinedstorage.api.autocrafting;
 
 import com.raoulvdberge.refinedstorage.api.autocrafting.craftingmonitor.ICraftingMonitorListener;
 import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTask;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
@@ -130,11 +132,54 @@ public interface ICraftingManager {
      */
     int track(FluidStack stack, int size);
 
+    /**
+     * Makes {@link #track(ItemStack, int)} offer stacks of an item to a task, see {@link ICraftingTask#onTrackedInsert(ItemStack, int)}.
+     * Tracked stacks are only offered to the tasks that are registered for their item, so a task has to register for every item it waits for.
+     * A task stays registered until it's unregistered, cancelled or done.
+     *
+     * @param task the task
+     * @param item the item
+     */
+    void addTrackedReceiver(ICraftingTask task, Item item);
+
+    /**
+     * Stops offering tracked stacks of an item to a task.
+     *
+     * @param task the task
+     * @param item the item
+     */
+    void removeTrackedReceiver(ICraftingTask task, Item item);
+
+    /**
+     * Makes {@link #track(FluidStack, int)} offer stacks of a fluid to a task, see {@link ICraftingTask#onTrackedInsert(FluidStack, int)}.
+     * Tracked stacks are only offered to the tasks that are registered for their fluid, so a task has to register for every fluid it waits for.
+     * A task stays registered until it's unregistered, cancelled or done.
+     *
+     * @param task  the task
+     * @param fluid the fluid
+     */
+    void addTrackedReceiver(ICraftingTask task, Fluid fluid);
+
+    /**
+     * Stops offering tracked stacks of a fluid to a task.
+     *
+     * @param task  the task
+     * @param fluid the fluid
+     */
+    void removeTrackedReceiver(ICraftingTask task, Fluid fluid);
+
     /**
      * @return a list of crafting patterns in this network, do NOT modify this list
      */
     List<ICraftingPattern> getPatterns();
 
+    /**
+     * The returned index isn't affected by later rebuilds, so it can be used to look up patterns off the server thread.
+     *
+     * @return the current pattern index
+     */
+    ICraftingPatternIndex getPatternIndex();
+
     /**
      * Rebuilds the pattern list.
      */
@@ -0,0 +1,42 @@
+package com.raoulvdberge.refinedstorage.api.autocrafting;
+
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * The patterns of a network at a certain point in time, indexed by output.
+ * An index is never modified after it is created, a rebuild of the patterns creates a new one.
+ * This makes it safe to use from other threads than the server thread.
+ */
+public interface ICraftingPatternIndex {
+    /**
+     * @return the patterns, in the order in which they are looked up
+     */
+    List<ICraftingPattern> getPatterns();
+
+    /**
+     * Return a crafting pattern from an item stack.
+     *
+     * @param pattern the stack to get a pattern for
+     * @return the crafting pattern, or null if none is found
+     */
+    @Nullable
+    ICraftingPattern getPattern(ItemStack pattern);
+
+    /**
+     * Return a crafting pattern from a fluid stack.
+     *
+     * @param pattern the stack to get a pattern for
+     * @return the crafting pattern, or null if none is found
+     */
+    @Nullable
+    ICraftingPattern getPattern(FluidStack pattern);
+
+    /**
+     * @return a new pattern chain list for the patterns in this index
+     */
+    ICraftingPatternChainList createPatternChainList();
+}
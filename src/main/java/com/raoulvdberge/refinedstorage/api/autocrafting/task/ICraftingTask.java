@@ -4,12 +4,15 @@ import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.autocrafting.craftingmonitor.ICraftingMonitorElement;
 import com.raoulvdberge.refinedstorage.api.autocrafting.preview.ICraftingPreviewElement;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 
 import javax.annotation.Nullable;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -24,6 +27,13 @@ public interface ICraftingTask {
     @Nullable
     ICraftingTaskError calculate();
 
+    /**
+     * Copies the network state that {@link ICraftingTask#calculate()} reads, so that the calculation can be run off the server thread afterwards.
+     * Called on the server thread. If this isn't called, the calculation reads the network state when it starts.
+     */
+    default void prepareCalculation() {
+    }
+
     /**
      * Updates this task.
      * {@link ICraftingTask#calculate()} must be run before this!
@@ -61,6 +71,7 @@ public interface ICraftingTask {
 
     /**
      * Called when a stack is inserted into the system through {@link com.raoulvdberge.refinedstorage.api.network.INetwork#insertItemTracked(ItemStack, int)}.
+     * If {@link #usesTrackedReceivers()} returns true, only called for items the task is registered for, see {@link com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingManager#addTrackedReceiver(ICraftingTask, net.minecraft.item.Item)}.
      *
      * @param stack the stack
      */
@@ -68,11 +79,19 @@ public interface ICraftingTask {
 
     /**
      * Called when a stack is inserted into the system through {@link com.raoulvdberge.refinedstorage.api.network.INetwork#insertFluidTracked(FluidStack, int)}.
+     * If {@link #usesTrackedReceivers()} returns true, only called for fluids the task is registered for, see {@link com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingManager#addTrackedReceiver(ICraftingTask, net.minecraftforge.fluids.Fluid)}.
      *
      * @param stack the stack
      */
     int onTrackedInsert(FluidStack stack, int size);
 
+    /**
+     * @return true if this task registers for the items and fluids it waits for, false to be offered every tracked insert
+     */
+    default boolean usesTrackedReceivers() {
+        return false;
+    }
+
     /**
      * Writes this task to NBT.
      *
@@ -122,6 +141,28 @@ public interface ICraftingTask {
         return !getMissing().isEmpty() || !getMissingFluids().isEmpty();
     }
 
+    /**
+     * Returns the items that {@link #calculate()} looked up in the network.
+     * A failed calculation is only done again when the amount of one of these items changes.
+     *
+     * @return the items, or null if the result of the calculation can't be reused
+     */
+    @Nullable
+    default Set<Item> getCalculationItems() {
+        return null;
+    }
+
+    /**
+     * Returns the fluids that {@link #calculate()} looked up in the network.
+     * A failed calculation is only done again when the amount of one of these fluids changes.
+     *
+     * @return the fluids, or null if the result of the calculation can't be reused
+     */
+    @Nullable
+    default Set<Fluid> getCalculationFluids() {
+        return null;
+    }
+
     /**
      * @return the id of this task
      */
@@ -30,6 +30,12 @@ public interface INetwork {
      */
     int getEnergyUsage();
 
+    /**
+     * Makes the network calculate its energy usage again.
+     * Nodes call this when their energy usage changes, for example when an upgrade is inserted.
+     */
+    void invalidateEnergyUsage();
+
     /**
      * @return the position of this network in the world
      */
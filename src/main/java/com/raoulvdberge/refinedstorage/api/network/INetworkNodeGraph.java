@@ -38,6 +38,24 @@ public interface INetworkNodeGraph {
      */
     void invalidate(Action action, World world, BlockPos origin);
 
+    /**
+     * Updates the graph after a node was placed next to a node of this network.
+     * Only the nodes that can be reached through the placed node and that weren't connected yet are visited.
+     * If no neighbor of the placed node is connected, the whole graph is rebuilt.
+     *
+     * @param world the world of the placed node
+     * @param pos   the position of the placed node
+     */
+    void invalidateAdded(World world, BlockPos pos);
+
+    /**
+     * Updates the graph after a node of this network was removed from the world.
+     * Only the nodes that were reached through the removed node are checked again, without visiting any blocks.
+     *
+     * @param node the removed node
+     */
+    void invalidateRemoved(INetworkNode node);
+
     /**
      * Runs an action on the network.
      * If the network is rebuilding it's graph, the action will be executed after the graph was built.
@@ -63,6 +81,15 @@ public interface INetworkNodeGraph {
      */
     Collection<INetworkNode> all();
 
+    /**
+     * Returns the connected nodes that are an instance of the given type, like {@link com.raoulvdberge.refinedstorage.api.storage.IStorageProvider}.
+     * The graph keeps an index per requested type up to date, so this doesn't go over all the nodes.
+     *
+     * @param type the type of the nodes
+     * @return a collection of the connected nodes of that type
+     */
+    Collection<INetworkNode> all(Class<?> type);
+
     /**
      * @param listener the listener
      */
@@ -13,6 +13,8 @@ import javax.annotation.Nullable;
  * Represents a node in the network.
  */
 public interface INetworkNode {
+    int SLEEP_UNTIL_WOKEN = -1;
+
     /**
      * @return the energy usage of this node
      */
@@ -59,6 +61,16 @@ public interface INetworkNode {
      */
     void update();
 
+    /**
+     * Called after every update, returns how long this node has nothing to do.
+     * A sleeping node isn't updated until that amount of ticks passed, or until it's woken up with {@link INetworkNodeManager#wakeUp(BlockPos)}.
+     *
+     * @return the amount of ticks to sleep, {@link #SLEEP_UNTIL_WOKEN} to sleep until woken up, or 0 to keep updating
+     */
+    default int getSleepTicks() {
+        return 0;
+    }
+
     /**
      * Writes the network node data to NBT.
      *
@@ -1,6 +1,7 @@
 package com.raoulvdberge.refinedstorage.api.network.node;
 
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -19,14 +20,14 @@ public interface INetworkNodeManager {
     INetworkNode getNode(BlockPos pos);
 
     /**
-     * Removes a node from the registry at a given position.
+     * Removes a node from the registry at a given position, and marks it for saving.
      *
      * @param pos the position of the node
      */
     void removeNode(BlockPos pos);
 
     /**
-     * Sets a node in the registry at a given position.
+     * Sets a node in the registry at a given position, and marks it for saving.
      *
      * @param pos  the position of the node
      * @param node the node
@@ -34,12 +35,44 @@ public interface INetworkNodeManager {
     void setNode(BlockPos pos, INetworkNode node);
 
     /**
-     * @return all nodes in this registry
+     * @return all nodes in this registry that are loaded, nodes are loaded per region when one of the chunks in that region is loaded
      */
     Collection<INetworkNode> all();
 
     /**
-     * Marks the network node manager for saving.
+     * @param pos the position of the chunk
+     * @return the nodes in the given chunk, without going over all nodes
+     */
+    Collection<INetworkNode> getNodesInChunk(ChunkPos pos);
+
+    /**
+     * Wakes up the node at a given position, so it's updated again from the next tick.
+     * Does nothing if the node is already awake, see {@link INetworkNode#getSleepTicks()}.
+     *
+     * @param pos the position of the node
+     */
+    void wakeUp(BlockPos pos);
+
+    /**
+     * Marks all loaded nodes in this registry for saving.
+     * Use {@link #markForSaving(BlockPos)} when only a single node changed.
      */
     void markForSaving();
+
+    /**
+     * Marks a single node for saving, only the nodes that are marked are written on the next save.
+     *
+     * @param pos the position of the node
+     */
+    void markForSaving(BlockPos pos);
+
+    /**
+     * @return the amount of nodes that were updated in the last tick
+     */
+    int getUpdatedNodes();
+
+    /**
+     * @return the amount of nodes in this registry that aren't updated, because they are sleeping or their chunk isn't loaded
+     */
+    int getSleepingNodes();
 }
@@ -21,6 +21,25 @@ public interface IStorageCache<T> {
      */
     void invalidate();
 
+    /**
+     * Adds a single storage to the cache without invalidating the whole cache.
+     * The stacks of the storage are added to the list, and listeners are notified of those changes at once.
+     * Does nothing if the storage is already in the cache.
+     * The storage is inserted according to its priority, so there's no need to call {@link IStorageCache#sort()}.
+     *
+     * @param storage the storage to add
+     */
+    void addStorage(@Nonnull IStorage<T> storage);
+
+    /**
+     * Removes a single storage from the cache without invalidating the whole cache.
+     * The stacks of the storage are removed from the list, and listeners are notified of those changes at once.
+     * Does nothing if the storage isn't in the cache.
+     *
+     * @param storage the storage to remove
+     */
+    void removeStorage(@Nonnull IStorage<T> storage);
+
     /**
      * Adds a stack to the cache.
      * <p>
@@ -32,7 +51,7 @@ public interface IStorageCache<T> {
      * @param stack      the stack to add, do NOT modify
      * @param size       the size to add
      * @param rebuilding true if this method is called while rebuilding, false otherwise
-     * @param batched    true if this change needs to be batched
+     * @param batched    ignored by the network storage caches, those batch every change until the next {@link #flush()}
      */
     void add(@Nonnull T stack, int size, boolean rebuilding, boolean batched);
 
@@ -44,12 +63,13 @@ public interface IStorageCache<T> {
      *
      * @param stack   the stack to remove, do NOT modify
      * @param size    the size to remove
-     * @param batched true if this change needs to be batched, false otherwise
+     * @param batched ignored by the network storage caches, those batch every change until the next {@link #flush()}
      */
     void remove(@Nonnull T stack, int size, boolean batched);
 
     /**
      * Notifies storage cache listeners about batched up storage cache changes.
+     * The network calls this at the end of every tick.
      */
     void flush();
 
@@ -74,6 +94,8 @@ public interface IStorageCache<T> {
     void sort();
 
     /**
+     * The list adds up the stacks of all storages, so use {@link IStackList#getCount(Object)} for counts that can go over {@link Integer#MAX_VALUE}.
+     *
      * @return the list behind this cache
      */
     IStackList<T> getList();
@@ -35,4 +35,10 @@ public interface IStorageCacheListener<T> {
      * @param stacks a list of stacks that are changed, with the size changed (negative if the amount decreases)
      */
     void onChangedBulk(@Nonnull List<Pair<T, Integer>> stacks);
+
+    /**
+     * Called every time the storage cache is flushed, after the changes are sent, which the network does at the end of every tick.
+     */
+    default void onFlushed() {
+    }
 }
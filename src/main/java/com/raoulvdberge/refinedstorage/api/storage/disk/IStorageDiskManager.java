@@ -34,7 +34,7 @@ public interface IStorageDiskManager {
     Map<UUID, IStorageDisk> getAll();
 
     /**
-     * Sets a storage disk.
+     * Sets a storage disk, and marks it for saving.
      *
      * @param id   the id
      * @param disk the disk
@@ -42,14 +42,22 @@ public interface IStorageDiskManager {
     void set(UUID id, IStorageDisk disk);
 
     /**
-     * Removes a storage disk.
+     * Removes a storage disk, and marks it for saving.
      *
      * @param id the id
      */
     void remove(UUID id);
 
     /**
-     * Marks this manager for saving.
+     * Marks all storage disks in this manager for saving.
+     * Use {@link #markForSaving(IStorageDisk)} when only a single disk changed.
      */
     void markForSaving();
+
+    /**
+     * Marks a single storage disk for saving, only the disks that are marked are written on the next save.
+     *
+     * @param disk the disk
+     */
+    void markForSaving(IStorageDisk disk);
 }
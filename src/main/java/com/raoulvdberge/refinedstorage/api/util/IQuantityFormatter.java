@@ -61,4 +61,12 @@ public interface IQuantityFormatter {
      * @return the formatted quantity
      */
     String formatInBucketFormWithOnlyTrailingDigitsIfZero(int qty);
+
+    /**
+     * Used in Fluid Grid.
+     *
+     * @param qty the quantity
+     * @return the formatted quantity
+     */
+    String formatInBucketFormWithOnlyTrailingDigitsIfZero(long qty);
 }
@@ -1,11 +1,17 @@
 package com.raoulvdberge.refinedstorage.api.util;
 
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.FluidStack;
+
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
 
 /**
  * A stack list.
+ * <p>
+ * The list keeps the count of every stack as a long. The count of the stacks that the list returns is clamped to {@link Integer#MAX_VALUE},
+ * use {@link #getCount(Object, int)} to get the full count.
  */
 public interface IStackList<T> {
     /**
@@ -16,6 +22,23 @@ public interface IStackList<T> {
      */
     void add(@Nonnull T stack, int size);
 
+    /**
+     * Adds a stack to the list, will merge it with another stack if it already exists in the list.
+     * Lists that don't keep long counts get the size in parts of at most {@link Integer#MAX_VALUE}.
+     *
+     * @param stack the stack
+     * @param size  the size to add
+     */
+    default void add(@Nonnull T stack, long size) {
+        while (size > 0) {
+            int part = (int) Math.min(size, Integer.MAX_VALUE);
+
+            add(stack, part);
+
+            size -= part;
+        }
+    }
+
     /**
      * Adds a stack to the list, will merge it with another stack if it already exists in the list.
      *
@@ -32,6 +55,28 @@ public interface IStackList<T> {
      */
     boolean remove(@Nonnull T stack, int size);
 
+    /**
+     * Decrements the count of that stack in the list.
+     * Lists that don't keep long counts get the size in parts of at most {@link Integer#MAX_VALUE}.
+     *
+     * @param stack the stack
+     * @param size  the size to remove
+     * @return true if the remove was successful for the full amount, false otherwise
+     */
+    default boolean remove(@Nonnull T stack, long size) {
+        while (size > 0) {
+            int part = (int) Math.min(size, Integer.MAX_VALUE);
+
+            if (!remove(stack, part)) {
+                return false;
+            }
+
+            size -= part;
+        }
+
+        return true;
+    }
+
     /**
      * Decrements the count of that stack in the list.
      *
@@ -61,6 +106,36 @@ public interface IStackList<T> {
     @Nullable
     T get(@Nonnull T stack, int flags);
 
+    /**
+     * Returns the full count of a stack, which can be higher than {@link Integer#MAX_VALUE}.
+     *
+     * @param stack the stack to search for
+     * @return the count, or 0 if no stack was found
+     */
+    default long getCount(@Nonnull T stack) {
+        return getCount(stack, IComparer.COMPARE_DAMAGE | IComparer.COMPARE_NBT);
+    }
+
+    /**
+     * Returns the full count of a stack, which can be higher than {@link Integer#MAX_VALUE}.
+     * Lists that don't keep long counts return the count of the stack itself.
+     *
+     * @param stack the stack to search for
+     * @param flags the flags to compare on, see {@link IComparer}
+     * @return the count, or 0 if no stack was found
+     */
+    default long getCount(@Nonnull T stack, int flags) {
+        T found = get(stack, flags);
+
+        if (found instanceof ItemStack) {
+            return ((ItemStack) found).getCount();
+        } else if (found instanceof FluidStack) {
+            return ((FluidStack) found).amount;
+        }
+
+        return 0;
+    }
+
     /**
      * Returns a stack.
      *
@@ -124,10 +124,10 @@ public class API implements IRSAPI {
             instance = new NetworkNodeManager(NetworkNodeManager.NAME);
 
             storage.setData(NetworkNodeManager.NAME, instance);
-        } else {
-            instance.tryReadNodes(world);
         }
 
+        instance.tryReadNodes(world);
+
         return instance;
     }
 
@@ -205,10 +205,10 @@ public class API implements IRSAPI {
             instance = new StorageDiskManager(StorageDiskManager.NAME);
 
             storage.setData(StorageDiskManager.NAME, instance);
-        } else {
-            instance.tryReadDisks(world);
         }
 
+        instance.tryReadDisks(world);
+
         return instance;
     }
 
@@ -283,7 +283,7 @@ public class API implements IRSAPI {
                 INetworkNode node = nodeProxy.getNode();
 
                 if (node.getNetwork() != null) {
-                    node.getNetwork().getNodeGraph().invalidate(Action.PERFORM, node.getNetwork().world(), node.getNetwork().getPosition());
+                    node.getNetwork().getNodeGraph().invalidateAdded(world, pos);
 
                     return;
                 }
@@ -0,0 +1,255 @@
+package com.raoulvdberge.refinedstorage.apiimpl.autocrafting;
+
+import com.raoulvdberge.refinedstorage.RS;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.CraftingTaskErrorType;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTask;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTaskError;
+import com.raoulvdberge.refinedstorage.api.network.INetwork;
+import com.raoulvdberge.refinedstorage.apiimpl.autocrafting.task.CraftingTaskError;
+import net.minecraft.entity.player.EntityPlayerMP;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs the crafting task calculations that players request from a grid on a fixed amount of threads.
+ * The tasks are prepared on the server thread, so the calculations only see a copy of the network state.
+ * The amount of calculations that can be queued or running is limited per network and per player.
+ */
+public class CraftingCalculationExecutor {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private ThreadPoolExecutor executor;
+
+    private final List<Request> requests = new ArrayList<>();
+
+    private final AtomicLong calculated = new AtomicLong();
+    private final AtomicLong totalWaitingTimeMs = new AtomicLong();
+    private final AtomicLong totalCalculationTimeMs = new AtomicLong();
+    private final AtomicLong lastCalculationTimeMs = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Queues the calculation of a task. Must be called on the server thread.
+     *
+     * @param network    the network the task is for
+     * @param player     the player that requested the task
+     * @param task       the task, not calculated yet
+     * @param supersedes whether this request replaces the requests of the player on the network that also have this flag, like previews
+     * @param callback   called on the server thread with the calculation error (or null) when the calculation is done, or with {@link CraftingTaskErrorType#TOO_COMPLEX} when it failed, not called when the request got superseded
+     * @return true if the calculation is queued, false if the queue limit for the network or the player is reached
+     */
+    public boolean submit(INetwork network, EntityPlayerMP player, ICraftingTask task, boolean supersedes, Consumer<ICraftingTaskError> callback) {
+        UUID playerId = player.getGameProfile().getId();
+
+        synchronized (requests) {
+            if (supersedes) {
+                for (Request request : new ArrayList<>(requests)) {
+                    if (request.supersedes && request.network == network && request.playerId.equals(playerId)) {
+                        cancel(request);
+                    }
+                }
+            }
+
+            int requestsOfNetwork = 0;
+            int requestsOfPlayer = 0;
+
+            for (Request request : requests) {
+                if (request.network == network) {
+                    requestsOfNetwork++;
+                }
+
+                if (request.playerId.equals(playerId)) {
+                    requestsOfPlayer++;
+                }
+            }
+
+            if (requestsOfNetwork >= RS.INSTANCE.config.calculationQueueLimitPerNetwork || requestsOfPlayer >= RS.INSTANCE.config.calculationQueueLimitPerPlayer) {
+                rejected.incrementAndGet();
+
+                return false;
+            }
+
+            task.prepareCalculation();
+
+            Request request = new Request(network, playerId, player, task, supersedes, callback);
+
+            requests.add(request);
+
+            request.future = getExecutor().submit(() -> run(request));
+        }
+
+        return true;
+    }
+
+    private void cancel(Request request) {
+        request.cancelled = true;
+
+        // A calculation that already started runs to the end, but its result is thrown away.
+        if (request.future != null && request.future.cancel(false)) {
+            requests.remove(request);
+        }
+
+        superseded.incrementAndGet();
+    }
+
+    private void run(Request request) {
+        try {
+            if (!request.cancelled) {
+                calculate(request);
+            }
+        } finally {
+            synchronized (requests) {
+                requests.remove(request);
+            }
+        }
+    }
+
+    private void calculate(Request request) {
+        long started = System.currentTimeMillis();
+
+        totalWaitingTimeMs.addAndGet(started - request.queued);
+
+        ICraftingTaskError error;
+
+        try {
+            error = request.task.calculate();
+        } catch (Exception e) {
+            LOGGER.error("Error while calculating crafting task", e);
+
+            // The player still gets an answer, otherwise the preview or request would wait forever.
+            error = new CraftingTaskError(CraftingTaskErrorType.TOO_COMPLEX);
+        } finally {
+            long time = System.currentTimeMillis() - started;
+
+            calculated.incrementAndGet();
+            totalCalculationTimeMs.addAndGet(time);
+            lastCalculationTimeMs.set(time);
+        }
+
+        ICraftingTaskError result = error;
+
+        request.player.getServerWorld().addScheduledTask(() -> {
+            if (!request.cancelled) {
+                request.callback.accept(result);
+            }
+        });
+    }
+
+    private ThreadPoolExecutor getExecutor() {
+        int threads = RS.INSTANCE.config.calculationThreads;
+
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+
+            executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "RS crafting calculation #" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else if (threads < executor.getCorePoolSize()) {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+
+        return executor;
+    }
+
+    /**
+     * @return the amount of calculations that are waiting for a thread
+     */
+    public int getQueueDepth() {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * @return the amount of calculations that are running
+     */
+    public int getRunning() {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    /**
+     * @return the amount of calculations that ran
+     */
+    public long getCalculated() {
+        return calculated.get();
+    }
+
+    /**
+     * @return the average time in ms a calculation waited for a thread
+     */
+    public long getAverageWaitingTimeMs() {
+        long amount = calculated.get();
+
+        return amount == 0 ? 0 : totalWaitingTimeMs.get() / amount;
+    }
+
+    /**
+     * @return the average time in ms a calculation took
+     */
+    public long getAverageCalculationTimeMs() {
+        long amount = calculated.get();
+
+        return amount == 0 ? 0 : totalCalculationTimeMs.get() / amount;
+    }
+
+    /**
+     * @return the time in ms the last calculation took
+     */
+    public long getLastCalculationTimeMs() {
+        return lastCalculationTimeMs.get();
+    }
+
+    /**
+     * @return the amount of requests that were replaced by a newer request
+     */
+    public long getSuperseded() {
+        return superseded.get();
+    }
+
+    /**
+     * @return the amount of requests that were rejected because a queue limit was reached
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    private static class Request {
+        private final INetwork network;
+        private final UUID playerId;
+        private final EntityPlayerMP player;
+        private final ICraftingTask task;
+        private final boolean supersedes;
+        private final Consumer<ICraftingTaskError> callback;
+        private final long queued = System.currentTimeMillis();
+
+        @Nullable
+        private Future<?> future;
+        private volatile boolean cancelled;
+
+        Request(INetwork network, UUID playerId, EntityPlayerMP player, ICraftingTask task, boolean supersedes, Consumer<ICraftingTaskError> callback) {
+            this.network = network;
+            this.playerId = playerId;
+            this.player = player;
+            this.task = task;
+            this.supersedes = supersedes;
+            this.callback = callback;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.raoulvdberge.refinedstorage.apiimpl.autocrafting;
 
+import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingManager;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternChainList;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternContainer;
+import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternIndex;
 import com.raoulvdberge.refinedstorage.api.autocrafting.craftingmonitor.ICraftingMonitorListener;
 import com.raoulvdberge.refinedstorage.api.autocrafting.registry.ICraftingTaskFactory;
 import com.raoulvdberge.refinedstorage.api.autocrafting.task.CraftingTaskReadException;
@@ -14,11 +16,13 @@ import com.raoulvdberge.refinedstorage.api.util.IComparer;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
 import com.raoulvdberge.refinedstorage.apiimpl.util.OneSixMigrationHelper;
 import com.raoulvdberge.refinedstorage.tile.TileController;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
@@ -37,7 +41,7 @@ public class CraftingManager implements ICraftingManager {
 
     private Map<String, List<IItemHandlerModifiable>> containerInventories = new LinkedHashMap<>();
 
-    private List<ICraftingPattern> patterns = new ArrayList<>();
+    private CraftingPatternIndex patternIndex = CraftingPatternIndex.EMPTY;
 
     private Map<UUID, ICraftingTask> tasks = new LinkedHashMap<>();
     private List<ICraftingTask> tasksToAdd = new ArrayList<>();
@@ -46,8 +50,22 @@ public class CraftingManager implements ICraftingManager {
 
     private Map<Object, Long> throttledRequesters = new HashMap<>();
 
+    private CraftingRequestCache requestCache = new CraftingRequestCache();
+    private boolean requestCacheListening;
+
     private Set<ICraftingMonitorListener> listeners = new HashSet<>();
 
+    // The tasks that wait for tracked inserts, per item or fluid, so a tracked insert doesn't go over every task.
+    private Map<Item, Set<ICraftingTask>> trackedReceiversByItem = new HashMap<>();
+    private Map<Fluid, Set<ICraftingTask>> trackedReceiversByFluid = new HashMap<>();
+
+    // Scheduling of the task updates, see updateTasks().
+    private int nextTask;
+    private int updatedTasks;
+    private long lastUpdateTimeNs;
+    private long deferredTaskUpdates;
+    private Map<UUID, Long> taskUpdateTimeNs = new HashMap<>();
+
     public CraftingManager(TileController network) {
         this.network = network;
     }
@@ -120,7 +138,7 @@ public class CraftingManager implements ICraftingManager {
 
     @Override
     public ICraftingPatternChainList createPatternChainList() {
-        return new CraftingPatternChainList(patterns);
+        return patternIndex.createPatternChainList();
     }
 
     @Override
@@ -153,7 +171,10 @@ public class CraftingManager implements ICraftingManager {
             for (UUID idToCancel : tasksToCancel) {
                 if (this.tasks.containsKey(idToCancel)) {
                     this.tasks.get(idToCancel).onCancelled();
-                    this.tasks.remove(idToCancel);
+
+                    removeTrackedReceivers(this.tasks.remove(idToCancel));
+
+                    this.taskUpdateTimeNs.remove(idToCancel);
                 }
             }
             this.tasksToCancel.clear();
@@ -163,18 +184,7 @@ public class CraftingManager implements ICraftingManager {
             }
             this.tasksToAdd.clear();
 
-            boolean anyFinished = false;
-
-            Iterator<Map.Entry<UUID, ICraftingTask>> it = tasks.entrySet().iterator();
-            while (it.hasNext()) {
-                ICraftingTask task = it.next().getValue();
-
-                if (task.update()) {
-                    anyFinished = true;
-
-                    it.remove();
-                }
-            }
+            boolean anyFinished = updateTasks();
 
             if (changed || anyFinished) {
                 onTaskChanged();
@@ -186,6 +196,92 @@ public class CraftingManager implements ICraftingManager {
         }
     }
 
+    // Updates the tasks until the time budget runs out, starting with the tasks that weren't updated last tick. Returns true if any task finished.
+    private boolean updateTasks() {
+        long started = System.nanoTime();
+        long budget = RS.INSTANCE.config.taskUpdateTimeBudgetMs * 1000000L;
+
+        List<ICraftingTask> toUpdate = new ArrayList<>(tasks.values());
+
+        boolean anyFinished = false;
+
+        this.updatedTasks = 0;
+
+        for (int i = 0; i < toUpdate.size(); ++i) {
+            // At least one task is updated every tick, so every task makes progress eventually.
+            if (i > 0 && System.nanoTime() - started > budget) {
+                this.nextTask = (nextTask + i) % toUpdate.size();
+                this.deferredTaskUpdates += toUpdate.size() - i;
+
+                break;
+            }
+
+            ICraftingTask task = toUpdate.get((nextTask + i) % toUpdate.size());
+
+            long taskStarted = System.nanoTime();
+
+            boolean finished = task.update();
+
+            taskUpdateTimeNs.merge(task.getId(), System.nanoTime() - taskStarted, Long::sum);
+
+            updatedTasks++;
+
+            if (finished) {
+                anyFinished = true;
+
+                tasks.remove(task.getId());
+                taskUpdateTimeNs.remove(task.getId());
+
+                removeTrackedReceivers(task);
+            }
+        }
+
+        if (updatedTasks == toUpdate.size() && !toUpdate.isEmpty()) {
+            // Every task got its update, rotate anyway so no task always goes first.
+            this.nextTask = (nextTask + 1) % toUpdate.size();
+        }
+
+        this.lastUpdateTimeNs = System.nanoTime() - started;
+
+        return anyFinished;
+    }
+
+    /**
+     * @return the amount of tasks that were updated in the last tick
+     */
+    public int getUpdatedTasks() {
+        return updatedTasks;
+    }
+
+    /**
+     * @return the time in ns that updating the tasks took in the last tick
+     */
+    public long getLastUpdateTimeNs() {
+        return lastUpdateTimeNs;
+    }
+
+    /**
+     * @return the amount of task updates that were moved to a later tick because the time budget ran out
+     */
+    public long getDeferredTaskUpdates() {
+        return deferredTaskUpdates;
+    }
+
+    /**
+     * @return the cache of requests that failed to calculate
+     */
+    public CraftingRequestCache getRequestCache() {
+        return requestCache;
+    }
+
+    /**
+     * @param id the id of the task
+     * @return the total time in ns that updating the task took
+     */
+    public long getTaskUpdateTimeNs(UUID id) {
+        return taskUpdateTimeNs.getOrDefault(id, 0L);
+    }
+
     @Override
     public void readFromNbt(NBTTagCompound tag) {
         this.tasksToRead = tag.getTagList(NBT_TASKS, Constants.NBT.TAG_COMPOUND);
@@ -242,6 +338,14 @@ public class CraftingManager implements ICraftingManager {
         }
 
         if (amount > 0) {
+            listenForRequestCache();
+
+            // Not throttled, the storage changes reach the cache at the end of the tick, so the answer can be outdated.
+            // Asking the cache again is cheap, and it forgets the request once the changes arrive.
+            if (requestCache.isKnownToFail(stack, amount)) {
+                return null;
+            }
+
             ICraftingTask task = create(stack, amount);
 
             if (task != null) {
@@ -252,6 +356,8 @@ public class CraftingManager implements ICraftingManager {
 
                     return task;
                 } else {
+                    requestCache.onFailed(stack, amount, task, error);
+
                     throttle(source);
                 }
             } else {
@@ -278,6 +384,14 @@ public class CraftingManager implements ICraftingManager {
         }
 
         if (amount > 0) {
+            listenForRequestCache();
+
+            // Not throttled, the storage changes reach the cache at the end of the tick, so the answer can be outdated.
+            // Asking the cache again is cheap, and it forgets the request once the changes arrive.
+            if (requestCache.isKnownToFail(stack, amount)) {
+                return null;
+            }
+
             ICraftingTask task = create(stack, amount);
 
             if (task != null) {
@@ -288,6 +402,8 @@ public class CraftingManager implements ICraftingManager {
 
                     return task;
                 } else {
+                    requestCache.onFailed(stack, amount, task, error);
+
                     throttle(source);
                 }
             } else {
@@ -298,6 +414,16 @@ public class CraftingManager implements ICraftingManager {
         return null;
     }
 
+    private void listenForRequestCache() {
+        // Not done in the constructor, adding a listener flushes the storage cache.
+        if (!requestCacheListening) {
+            requestCacheListening = true;
+
+            network.getItemStorageCache().addListener(requestCache.getItemListener());
+            network.getFluidStorageCache().addListener(requestCache.getFluidListener());
+        }
+    }
+
     private void throttle(@Nullable Object source) {
         OneSixMigrationHelper.removalHook(); // Remove @Nullable source
 
@@ -323,11 +449,27 @@ public class CraftingManager implements ICraftingManager {
 
     @Override
     public int track(ItemStack stack, int size) {
+        Set<ICraftingTask> receivers = trackedReceiversByItem.get(stack.getItem());
+
+        if (receivers != null) {
+            // A task can unregister while receiving.
+            for (ICraftingTask task : new ArrayList<>(receivers)) {
+                size = task.onTrackedInsert(stack, size);
+
+                if (size == 0) {
+                    return 0;
+                }
+            }
+        }
+
+        // Tasks that don't register are offered every insert.
         for (ICraftingTask task : tasks.values()) {
-            size = task.onTrackedInsert(stack, size);
+            if (!task.usesTrackedReceivers()) {
+                size = task.onTrackedInsert(stack, size);
 
-            if (size == 0) {
-                return 0;
+                if (size == 0) {
+                    return 0;
+                }
             }
         }
 
@@ -336,72 +478,116 @@ public class CraftingManager implements ICraftingManager {
 
     @Override
     public int track(FluidStack stack, int size) {
+        Set<ICraftingTask> receivers = trackedReceiversByFluid.get(stack.getFluid());
+
+        if (receivers != null) {
+            // A task can unregister while receiving.
+            for (ICraftingTask task : new ArrayList<>(receivers)) {
+                size = task.onTrackedInsert(stack, size);
+
+                if (size == 0) {
+                    return 0;
+                }
+            }
+        }
+
+        // Tasks that don't register are offered every insert.
         for (ICraftingTask task : tasks.values()) {
-            size = task.onTrackedInsert(stack, size);
+            if (!task.usesTrackedReceivers()) {
+                size = task.onTrackedInsert(stack, size);
 
-            if (size == 0) {
-                return 0;
+                if (size == 0) {
+                    return 0;
+                }
             }
         }
 
         return size;
     }
 
+    @Override
+    public void addTrackedReceiver(ICraftingTask task, Item item) {
+        trackedReceiversByItem.computeIfAbsent(item, k -> new LinkedHashSet<>()).add(task);
+    }
+
+    @Override
+    public void removeTrackedReceiver(ICraftingTask task, Item item) {
+        Set<ICraftingTask> receivers = trackedReceiversByItem.get(item);
+
+        if (receivers != null && receivers.remove(task) && receivers.isEmpty()) {
+            trackedReceiversByItem.remove(item);
+        }
+    }
+
+    @Override
+    public void addTrackedReceiver(ICraftingTask task, Fluid fluid) {
+        trackedReceiversByFluid.computeIfAbsent(fluid, k -> new LinkedHashSet<>()).add(task);
+    }
+
+    @Override
+    public void removeTrackedReceiver(ICraftingTask task, Fluid fluid) {
+        Set<ICraftingTask> receivers = trackedReceiversByFluid.get(fluid);
+
+        if (receivers != null && receivers.remove(task) && receivers.isEmpty()) {
+            trackedReceiversByFluid.remove(fluid);
+        }
+    }
+
+    private void removeTrackedReceivers(ICraftingTask task) {
+        trackedReceiversByItem.values().removeIf(receivers -> receivers.remove(task) && receivers.isEmpty());
+        trackedReceiversByFluid.values().removeIf(receivers -> receivers.remove(task) && receivers.isEmpty());
+    }
+
     @Override
     public List<ICraftingPattern> getPatterns() {
-        return patterns;
+        return patternIndex.getPatterns();
+    }
+
+    @Override
+    public ICraftingPatternIndex getPatternIndex() {
+        return patternIndex;
     }
 
     @Override
     public void rebuild() {
-        this.patterns.clear();
         this.containerInventories.clear();
 
         List<ICraftingPatternContainer> containers = new ArrayList<>();
 
-        for (INetworkNode node : network.getNodeGraph().all()) {
-            if (node instanceof ICraftingPatternContainer && node.canUpdate()) {
+        for (INetworkNode node : network.getNodeGraph().all(ICraftingPatternContainer.class)) {
+            if (node.canUpdate()) {
                 containers.add((ICraftingPatternContainer) node);
             }
         }
 
         containers.sort((a, b) -> b.getPosition().compareTo(a.getPosition()));
 
+        List<ICraftingPattern> patterns = new ArrayList<>();
+
         for (ICraftingPatternContainer container : containers) {
-            this.patterns.addAll(container.getPatterns());
+            patterns.addAll(container.getPatterns());
 
             IItemHandlerModifiable handler = container.getPatternInventory();
             if (handler != null) {
                 this.containerInventories.computeIfAbsent(container.getName(), k -> new ArrayList<>()).add(handler);
             }
         }
+
+        // Calculations that are running off the server thread keep using the index they started with.
+        this.patternIndex = new CraftingPatternIndex(patterns);
+
+        this.requestCache.invalidate();
     }
 
     @Nullable
     @Override
     public ICraftingPattern getPattern(ItemStack pattern) {
-        for (ICraftingPattern patternInList : patterns) {
-            for (ItemStack output : patternInList.getOutputs()) {
-                if (API.instance().getComparer().isEqualNoQuantity(output, pattern)) {
-                    return patternInList;
-                }
-            }
-        }
-
-        return null;
+        return patternIndex.getPattern(pattern);
     }
 
     @Nullable
     @Override
     public ICraftingPattern getPattern(FluidStack pattern) {
-        for (ICraftingPattern patternInList : patterns) {
-            for (FluidStack output : patternInList.getFluidOutputs()) {
-                if (API.instance().getComparer().isEqual(output, pattern, IComparer.COMPARE_NBT)) {
-                    return patternInList;
-                }
-            }
-        }
-
-        return null;
+        return patternIndex.getPattern(pattern);
     }
 }
@@ -6,11 +6,13 @@ import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternChainLis
 import gnu.trove.map.hash.TCustomHashMap;
 import gnu.trove.strategy.HashingStrategy;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
 public class CraftingPatternChainList implements ICraftingPatternChainList {
-    private Map<ICraftingPattern, CraftingPatternChain> map = new TCustomHashMap<>(new HashingStrategy<ICraftingPattern>() {
+    private static final HashingStrategy<ICraftingPattern> CHAIN_HASHING_STRATEGY = new HashingStrategy<ICraftingPattern>() {
         @Override
         public int computeHashCode(ICraftingPattern pattern) {
             return pattern.getChainHashCode();
@@ -20,26 +22,59 @@ public class CraftingPatternChainList implements ICraftingPatternChainList {
         public boolean equals(ICraftingPattern left, ICraftingPattern right) {
             return left.canBeInChainWith(right);
         }
-    });
+    };
 
-    public CraftingPatternChainList(List<ICraftingPattern> patterns) {
-        for (ICraftingPattern pattern : patterns) {
-            CraftingPatternChain chain = map.get(pattern);
-            if (chain == null) {
-                map.put(pattern, chain = new CraftingPatternChain());
+    private Map<ICraftingPattern, CraftingPatternChain> map = new TCustomHashMap<>(CHAIN_HASHING_STRATEGY);
+
+    // Most lookups are done with the same pattern instances the chains were made from, those don't need the (expensive) chain hash.
+    private Map<ICraftingPattern, CraftingPatternChain> mapByInstance = new IdentityHashMap<>();
+
+    /**
+     * @param chains the patterns, already grouped per chain, see {@link #groupByChain(List)}
+     */
+    public CraftingPatternChainList(List<List<ICraftingPattern>> chains) {
+        for (List<ICraftingPattern> patterns : chains) {
+            CraftingPatternChain chain = new CraftingPatternChain();
+
+            for (ICraftingPattern pattern : patterns) {
+                chain.addPattern(pattern);
+
+                mapByInstance.put(pattern, chain);
             }
 
-            chain.addPattern(pattern);
+            map.put(patterns.get(0), chain);
         }
     }
 
     @Override
     public ICraftingPatternChain getChain(ICraftingPattern pattern) {
-        ICraftingPatternChain chain = map.get(pattern);
+        ICraftingPatternChain chain = mapByInstance.get(pattern);
+        if (chain == null) {
+            chain = map.get(pattern);
+        }
+
         if (chain == null) {
             throw new IllegalStateException("Pattern was not found in pattern chain");
         }
 
         return chain;
     }
+
+    public static List<List<ICraftingPattern>> groupByChain(List<ICraftingPattern> patterns) {
+        Map<ICraftingPattern, List<ICraftingPattern>> chains = new TCustomHashMap<>(CHAIN_HASHING_STRATEGY);
+        List<List<ICraftingPattern>> result = new ArrayList<>();
+
+        for (ICraftingPattern pattern : patterns) {
+            List<ICraftingPattern> chain = chains.get(pattern);
+            if (chain == null) {
+                chains.put(pattern, chain = new ArrayList<>());
+
+                result.add(chain);
+            }
+
+            chain.add(pattern);
+        }
+
+        return result;
+    }
 }
@@ -0,0 +1,104 @@
+package com.raoulvdberge.refinedstorage.apiimpl.autocrafting;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
+import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternChainList;
+import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPatternIndex;
+import com.raoulvdberge.refinedstorage.api.util.IComparer;
+import com.raoulvdberge.refinedstorage.apiimpl.API;
+import com.raoulvdberge.refinedstorage.apiimpl.util.ItemStackKey;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CraftingPatternIndex implements ICraftingPatternIndex {
+    public static final CraftingPatternIndex EMPTY = new CraftingPatternIndex(Collections.emptyList());
+
+    private List<ICraftingPattern> patterns;
+
+    // Indices from outputs to the first pattern (in the order of the patterns list) that has that output.
+    // Wildcard damages and fluid NBT are compared asymmetrically, so those still go through a scan over the patterns with that item or fluid.
+    private Map<ItemStackKey, ICraftingPattern> patternsByOutput = new HashMap<>();
+    private ListMultimap<Item, ICraftingPattern> patternsByOutputItem = ArrayListMultimap.create();
+    private Set<Item> outputItemsWithWildcard = new HashSet<>();
+    private ListMultimap<Fluid, ICraftingPattern> patternsByOutputFluid = ArrayListMultimap.create();
+
+    private List<List<ICraftingPattern>> patternChains;
+
+    public CraftingPatternIndex(List<ICraftingPattern> patterns) {
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+
+        for (ICraftingPattern pattern : patterns) {
+            for (ItemStack output : pattern.getOutputs()) {
+                this.patternsByOutput.putIfAbsent(new ItemStackKey(output), pattern);
+                this.patternsByOutputItem.put(output.getItem(), pattern);
+
+                if (output.getItemDamage() == OreDictionary.WILDCARD_VALUE) {
+                    this.outputItemsWithWildcard.add(output.getItem());
+                }
+            }
+
+            for (FluidStack output : pattern.getFluidOutputs()) {
+                this.patternsByOutputFluid.put(output.getFluid(), pattern);
+            }
+        }
+
+        this.patternChains = CraftingPatternChainList.groupByChain(this.patterns);
+    }
+
+    @Override
+    public List<ICraftingPattern> getPatterns() {
+        return patterns;
+    }
+
+    @Nullable
+    @Override
+    public ICraftingPattern getPattern(ItemStack pattern) {
+        boolean wildcard = pattern.getItemDamage() == OreDictionary.WILDCARD_VALUE || outputItemsWithWildcard.contains(pattern.getItem());
+
+        if (!wildcard) {
+            return patternsByOutput.get(new ItemStackKey(pattern));
+        }
+
+        for (ICraftingPattern patternInList : patternsByOutputItem.get(pattern.getItem())) {
+            for (ItemStack output : patternInList.getOutputs()) {
+                if (API.instance().getComparer().isEqualNoQuantity(output, pattern)) {
+                    return patternInList;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public ICraftingPattern getPattern(FluidStack pattern) {
+        for (ICraftingPattern patternInList : patternsByOutputFluid.get(pattern.getFluid())) {
+            for (FluidStack output : patternInList.getFluidOutputs()) {
+                if (API.instance().getComparer().isEqual(output, pattern, IComparer.COMPARE_NBT)) {
+                    return patternInList;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public ICraftingPatternChainList createPatternChainList() {
+        return new CraftingPatternChainList(patternChains);
+    }
+}
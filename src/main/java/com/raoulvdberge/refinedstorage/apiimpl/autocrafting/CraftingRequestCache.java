@@ -0,0 +1,212 @@
+package com.raoulvdberge.refinedstorage.apiimpl.autocrafting;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.CraftingTaskErrorType;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTask;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTaskError;
+import com.raoulvdberge.refinedstorage.api.storage.IStorageCacheListener;
+import com.raoulvdberge.refinedstorage.apiimpl.util.ItemStackKey;
+import com.raoulvdberge.refinedstorage.util.StackUtils;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the requests done through {@link CraftingManager#request(Object, ItemStack, int)} that couldn't be calculated,
+ * so requesting the same amount again doesn't calculate the whole plan again while nothing it depends on changed.
+ * A failed request is forgotten when the patterns are rebuilt, or when the amount in the network of an item or fluid that the calculation looked at changes.
+ */
+public class CraftingRequestCache {
+    // Keyed by an ItemStackKey or a FluidStack with an amount of 1.
+    private Map<Object, FailedRequest> failedRequests = new HashMap<>();
+
+    private SetMultimap<Item, Object> failedRequestsByItem = HashMultimap.create();
+    private SetMultimap<Fluid, Object> failedRequestsByFluid = HashMultimap.create();
+
+    private long hits;
+    private long misses;
+
+    private final IStorageCacheListener<ItemStack> itemListener = new IStorageCacheListener<ItemStack>() {
+        @Override
+        public void onAttached() {
+            // NO OP
+        }
+
+        @Override
+        public void onInvalidated() {
+            invalidate();
+        }
+
+        @Override
+        public void onChanged(@Nonnull ItemStack stack, int size) {
+            new ArrayList<>(failedRequestsByItem.get(stack.getItem())).forEach(CraftingRequestCache.this::remove);
+        }
+
+        @Override
+        public void onChangedBulk(@Nonnull List<Pair<ItemStack, Integer>> stacks) {
+            stacks.forEach(change -> onChanged(change.getLeft(), change.getRight()));
+        }
+    };
+
+    private final IStorageCacheListener<FluidStack> fluidListener = new IStorageCacheListener<FluidStack>() {
+        @Override
+        public void onAttached() {
+            // NO OP
+        }
+
+        @Override
+        public void onInvalidated() {
+            invalidate();
+        }
+
+        @Override
+        public void onChanged(@Nonnull FluidStack stack, int size) {
+            new ArrayList<>(failedRequestsByFluid.get(stack.getFluid())).forEach(CraftingRequestCache.this::remove);
+        }
+
+        @Override
+        public void onChangedBulk(@Nonnull List<Pair<FluidStack, Integer>> stacks) {
+            stacks.forEach(change -> onChanged(change.getLeft(), change.getRight()));
+        }
+    };
+
+    /**
+     * @param stack  the requested stack
+     * @param amount the requested amount
+     * @return true if the same request failed before and nothing it depends on changed since
+     */
+    public boolean isKnownToFail(ItemStack stack, int amount) {
+        return isKnownToFail(new ItemStackKey(stack), amount);
+    }
+
+    /**
+     * @param stack  the requested stack
+     * @param amount the requested amount
+     * @return true if the same request failed before and nothing it depends on changed since
+     */
+    public boolean isKnownToFail(FluidStack stack, int amount) {
+        return isKnownToFail(StackUtils.copy(stack, 1), amount);
+    }
+
+    private boolean isKnownToFail(Object key, int amount) {
+        FailedRequest failedRequest = failedRequests.get(key);
+
+        if (failedRequest != null && failedRequest.amount == amount) {
+            hits++;
+
+            return true;
+        }
+
+        misses++;
+
+        return false;
+    }
+
+    /**
+     * Remembers a failed request, if the task tells what its calculation depends on.
+     *
+     * @param stack  the requested stack
+     * @param amount the requested amount
+     * @param task   the calculated task
+     * @param error  the calculation error, or null if the task is missing items or fluids
+     */
+    public void onFailed(ItemStack stack, int amount, ICraftingTask task, @Nullable ICraftingTaskError error) {
+        onFailed(new ItemStackKey(stack), amount, task, error);
+    }
+
+    /**
+     * Remembers a failed request, if the task tells what its calculation depends on.
+     *
+     * @param stack  the requested stack
+     * @param amount the requested amount
+     * @param task   the calculated task
+     * @param error  the calculation error, or null if the task is missing items or fluids
+     */
+    public void onFailed(FluidStack stack, int amount, ICraftingTask task, @Nullable ICraftingTaskError error) {
+        onFailed(StackUtils.copy(stack, 1), amount, task, error);
+    }
+
+    private void onFailed(Object key, int amount, ICraftingTask task, @Nullable ICraftingTaskError error) {
+        // A calculation that took too long can succeed the next time, when the server is less busy.
+        if (error != null && error.getType() == CraftingTaskErrorType.TOO_COMPLEX) {
+            return;
+        }
+
+        Set<Item> items = task.getCalculationItems();
+        Set<Fluid> fluids = task.getCalculationFluids();
+
+        if (items == null || fluids == null) {
+            return;
+        }
+
+        remove(key);
+
+        failedRequests.put(key, new FailedRequest(amount, items, fluids));
+
+        items.forEach(item -> failedRequestsByItem.put(item, key));
+        fluids.forEach(fluid -> failedRequestsByFluid.put(fluid, key));
+    }
+
+    private void remove(Object key) {
+        FailedRequest failedRequest = failedRequests.remove(key);
+
+        if (failedRequest != null) {
+            failedRequest.items.forEach(item -> failedRequestsByItem.remove(item, key));
+            failedRequest.fluids.forEach(fluid -> failedRequestsByFluid.remove(fluid, key));
+        }
+    }
+
+    /**
+     * Forgets all failed requests.
+     */
+    public void invalidate() {
+        failedRequests.clear();
+        failedRequestsByItem.clear();
+        failedRequestsByFluid.clear();
+    }
+
+    public IStorageCacheListener<ItemStack> getItemListener() {
+        return itemListener;
+    }
+
+    public IStorageCacheListener<FluidStack> getFluidListener() {
+        return fluidListener;
+    }
+
+    /**
+     * @return the amount of requests that weren't calculated because they were known to fail
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the amount of requests that had to be calculated
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    private static class FailedRequest {
+        private final int amount;
+        private final Set<Item> items;
+        private final Set<Fluid> fluids;
+
+        FailedRequest(int amount, Set<Item> items, Set<Fluid> fluids) {
+            this.amount = amount;
+            this.items = items;
+            this.fluids = fluids;
+        }
+    }
+}
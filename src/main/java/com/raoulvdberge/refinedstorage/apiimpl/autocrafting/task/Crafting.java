@@ -4,35 +4,62 @@ import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.autocrafting.task.CraftingTaskReadException;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
+import com.raoulvdberge.refinedstorage.apiimpl.API;
 import com.raoulvdberge.refinedstorage.util.StackUtils;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.NonNullList;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 class Crafting {
     private static final String NBT_PATTERN = "Pattern";
     private static final String NBT_TOOK = "Took";
     private static final String NBT_TO_EXTRACT = "ToExtract";
+    private static final String NBT_TO_EXTRACT_PER_SLOT = "ToExtractPerSlot";
     private static final String NBT_ROOT = "Root";
+    private static final String NBT_QUANTITY = "Quantity";
+    private static final String NBT_EXECUTED = "Executed";
 
     private ICraftingPattern pattern;
     private NonNullList<ItemStack> took;
     private IStackList<ItemStack> toExtract;
+    // Null for steps that were saved before this was kept.
+    @Nullable
+    private List<List<ItemStack>> toExtractPerSlot;
     private boolean root;
-
-    public Crafting(ICraftingPattern pattern, NonNullList<ItemStack> took, IStackList<ItemStack> toExtract, boolean root) {
+    private int quantity;
+    private int executed;
+
+    /**
+     * @param pattern          the pattern
+     * @param took             the inputs of a single execution
+     * @param toExtract        the items to extract for all executions
+     * @param toExtractPerSlot the items to extract for all executions per input slot, in the order the alternatives were taken
+     * @param root             whether this is the root step
+     * @param quantity         the amount of times the pattern is executed
+     */
+    public Crafting(ICraftingPattern pattern, NonNullList<ItemStack> took, IStackList<ItemStack> toExtract, List<List<ItemStack>> toExtractPerSlot, boolean root, int quantity) {
         this.pattern = pattern;
         this.took = took;
         this.toExtract = toExtract;
+        this.toExtractPerSlot = toExtractPerSlot;
         this.root = root;
+        this.quantity = quantity;
     }
 
     public Crafting(INetwork network, NBTTagCompound tag) throws CraftingTaskReadException {
         this.pattern = CraftingTask.readPatternFromNbt(tag.getCompoundTag(NBT_PATTERN), network.world());
         this.toExtract = CraftingTask.readItemStackList(tag.getTagList(NBT_TO_EXTRACT, Constants.NBT.TAG_COMPOUND));
         this.root = tag.getBoolean(NBT_ROOT);
+        this.quantity = tag.hasKey(NBT_QUANTITY) ? tag.getInteger(NBT_QUANTITY) : 1;
+        this.executed = tag.getInteger(NBT_EXECUTED);
 
         this.took = NonNullList.create();
 
@@ -43,6 +70,10 @@ class Crafting {
             // Can be empty.
             took.add(stack);
         }
+
+        if (tag.hasKey(NBT_TO_EXTRACT_PER_SLOT)) {
+            this.toExtractPerSlot = CraftingTask.readItemStackSlots(tag.getTagList(NBT_TO_EXTRACT_PER_SLOT, Constants.NBT.TAG_LIST));
+        }
     }
 
     public boolean isRoot() {
@@ -61,12 +92,84 @@ class Crafting {
         return toExtract;
     }
 
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getExecuted() {
+        return executed;
+    }
+
+    public boolean isDone() {
+        return executed >= quantity;
+    }
+
+    public void onExecuted() {
+        executed++;
+    }
+
+    /**
+     * @return the share of {@link #getToExtract()} that the next execution needs
+     */
+    public List<ItemStack> getToExtractForNextExecution() {
+        if (toExtractPerSlot != null) {
+            IStackList<ItemStack> stacks = API.instance().createItemStackList();
+
+            for (List<ItemStack> slot : toExtractPerSlot) {
+                forEachInNextExecution(slot, stacks::add);
+            }
+
+            return new ArrayList<>(stacks.getStacks());
+        }
+
+        List<ItemStack> stacks = new ArrayList<>();
+
+        for (ItemStack stack : toExtract.getStacks()) {
+            int amount = CraftingTask.getAmountForExecution(stack.getCount(), quantity, executed);
+
+            if (amount > 0) {
+                stacks.add(ItemHandlerHelper.copyStackWithSize(stack, amount));
+            }
+        }
+
+        return stacks;
+    }
+
+    /**
+     * @return the inputs of the next execution, with the alternative of every slot that {@link #getToExtractForNextExecution()} takes
+     */
+    public NonNullList<ItemStack> getTookForNextExecution() {
+        if (toExtractPerSlot == null || toExtractPerSlot.size() != took.size()) {
+            return took;
+        }
+
+        NonNullList<ItemStack> tookForNextExecution = NonNullList.create();
+
+        for (int i = 0; i < took.size(); ++i) {
+            ItemStack slotTook = took.get(i);
+
+            List<ItemStack> taken = new ArrayList<>();
+
+            forEachInNextExecution(toExtractPerSlot.get(i), taken::add);
+
+            tookForNextExecution.add(slotTook.isEmpty() || taken.isEmpty() ? slotTook : ItemHandlerHelper.copyStackWithSize(taken.get(0), slotTook.getCount()));
+        }
+
+        return tookForNextExecution;
+    }
+
+    private void forEachInNextExecution(List<ItemStack> slot, Consumer<ItemStack> consumer) {
+        CraftingTask.forEachInExecution(slot, ItemStack::getCount, ItemHandlerHelper::copyStackWithSize, quantity, executed, consumer);
+    }
+
     public NBTTagCompound writeToNbt() {
         NBTTagCompound tag = new NBTTagCompound();
 
         tag.setTag(NBT_PATTERN, CraftingTask.writePatternToNbt(pattern));
         tag.setTag(NBT_TO_EXTRACT, CraftingTask.writeItemStackList(toExtract));
         tag.setBoolean(NBT_ROOT, root);
+        tag.setInteger(NBT_QUANTITY, quantity);
+        tag.setInteger(NBT_EXECUTED, executed);
 
         NBTTagList tookList = new NBTTagList();
         for (ItemStack took : this.took) {
@@ -75,6 +178,10 @@ class Crafting {
 
         tag.setTag(NBT_TOOK, tookList);
 
+        if (toExtractPerSlot != null) {
+            tag.setTag(NBT_TO_EXTRACT_PER_SLOT, CraftingTask.writeItemStackSlots(toExtractPerSlot));
+        }
+
         return tag;
     }
 }
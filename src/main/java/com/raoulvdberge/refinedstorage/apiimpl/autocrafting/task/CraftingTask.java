@@ -1,6 +1,9 @@
 package com.raoulvdberge.refinedstorage.apiimpl.autocrafting.task;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.SetMultimap;
 import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.autocrafting.*;
 import com.raoulvdberge.refinedstorage.api.autocrafting.craftingmonitor.ICraftingMonitorElement;
@@ -25,6 +28,7 @@ import com.raoulvdberge.refinedstorage.apiimpl.storage.disk.StorageDiskFluid;
 import com.raoulvdberge.refinedstorage.apiimpl.storage.disk.StorageDiskItem;
 import com.raoulvdberge.refinedstorage.apiimpl.util.OneSixMigrationHelper;
 import com.raoulvdberge.refinedstorage.util.StackUtils;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -32,13 +36,18 @@ import net.minecraft.util.NonNullList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -86,6 +95,20 @@ public class CraftingTask implements ICraftingTask {
     private List<Crafting> crafting = new ArrayList<>();
     private List<Processing> processing = new ArrayList<>();
 
+    // The processing steps that can receive their outputs, per item or fluid they wait for, see onTrackedInsert().
+    private SetMultimap<Item, Processing> processingByItemToReceive = LinkedHashMultimap.create();
+    private SetMultimap<Fluid, Processing> processingByFluidToReceive = LinkedHashMultimap.create();
+
+    // Inputs only come from the internal storages, so a step that misses an input isn't tried again until that input is inserted there.
+    private Set<Object> stepsWaitingForInputs = new HashSet<>();
+    private SetMultimap<Item, Object> stepsWaitingForItem = HashMultimap.create();
+    private SetMultimap<Fluid, Object> stepsWaitingForFluid = HashMultimap.create();
+    private long skippedStepUpdates;
+
+    // The items and fluids that the calculation looked up in the network, see getCalculationItems().
+    private Set<Item> calculationItems = new HashSet<>();
+    private Set<Fluid> calculationFluids = new HashSet<>();
+
     private IStackList<ItemStack> missing = API.instance().createItemStackList();
     private IStackList<FluidStack> missingFluids = API.instance().createFluidStackList();
 
@@ -95,6 +118,11 @@ public class CraftingTask implements ICraftingTask {
     private IStackList<ItemStack> toCraft = API.instance().createItemStackList();
     private IStackList<FluidStack> toCraftFluids = API.instance().createFluidStackList();
 
+    // The network state the calculation runs against, only set between prepareCalculation() and the end of calculate().
+    private IStackList<ItemStack> calculationStorage;
+    private IStackList<FluidStack> calculationFluidStorage;
+    private ICraftingPatternIndex calculationPatternIndex;
+
     public CraftingTask(INetwork network, ICraftingRequestInfo requested, int quantity, ICraftingPattern pattern) {
         this.network = network;
         this.requested = requested;
@@ -146,6 +174,12 @@ public class CraftingTask implements ICraftingTask {
 
         this.missing = readItemStackList(tag.getTagList(NBT_MISSING, Constants.NBT.TAG_COMPOUND));
         this.missingFluids = readFluidStackList(tag.getTagList(NBT_MISSING_FLUIDS, Constants.NBT.TAG_COMPOUND));
+
+        for (Processing p : processing) {
+            if (p.getExecuted() > 0 && p.getState() != ProcessingState.PROCESSED) {
+                addTrackedReceiver(p);
+            }
+        }
     }
 
     @Override
@@ -234,6 +268,87 @@ public class CraftingTask implements ICraftingTask {
         return stacks;
     }
 
+    static NBTTagList writeItemStackSlots(List<List<ItemStack>> slots) {
+        NBTTagList slotsList = new NBTTagList();
+
+        for (List<ItemStack> slot : slots) {
+            NBTTagList slotList = new NBTTagList();
+
+            for (ItemStack stack : slot) {
+                slotList.appendTag(StackUtils.serializeStackToNbt(stack));
+            }
+
+            slotsList.appendTag(slotList);
+        }
+
+        return slotsList;
+    }
+
+    static List<List<ItemStack>> readItemStackSlots(NBTTagList slotsList) {
+        List<List<ItemStack>> slots = new ArrayList<>();
+
+        for (int i = 0; i < slotsList.tagCount(); ++i) {
+            NBTTagList slotList = (NBTTagList) slotsList.get(i);
+
+            List<ItemStack> slot = new ArrayList<>();
+
+            for (int j = 0; j < slotList.tagCount(); ++j) {
+                slot.add(StackUtils.deserializeStackFromNbt(slotList.getCompoundTagAt(j)));
+            }
+
+            slots.add(slot);
+        }
+
+        return slots;
+    }
+
+    static NBTTagList writeFluidStackSlots(List<List<FluidStack>> slots) {
+        NBTTagList slotsList = new NBTTagList();
+
+        for (List<FluidStack> slot : slots) {
+            NBTTagList slotList = new NBTTagList();
+
+            for (FluidStack stack : slot) {
+                slotList.appendTag(stack.writeToNBT(new NBTTagCompound()));
+            }
+
+            slotsList.appendTag(slotList);
+        }
+
+        return slotsList;
+    }
+
+    static List<List<FluidStack>> readFluidStackSlots(NBTTagList slotsList) throws CraftingTaskReadException {
+        List<List<FluidStack>> slots = new ArrayList<>();
+
+        for (int i = 0; i < slotsList.tagCount(); ++i) {
+            NBTTagList slotList = (NBTTagList) slotsList.get(i);
+
+            List<FluidStack> slot = new ArrayList<>();
+
+            for (int j = 0; j < slotList.tagCount(); ++j) {
+                FluidStack stack = FluidStack.loadFluidStackFromNBT(slotList.getCompoundTagAt(j));
+
+                if (stack == null) {
+                    throw new CraftingTaskReadException("Empty stack!");
+                }
+
+                slot.add(stack);
+            }
+
+            slots.add(slot);
+        }
+
+        return slots;
+    }
+
+    @Override
+    public void prepareCalculation() {
+        this.calculationStorage = network.getItemStorageCache().getList().copy();
+        this.calculationFluidStorage = network.getFluidStorageCache().getList().copy();
+        this.calculationPatternIndex = network.getCraftingManager().getPatternIndex();
+    }
+
     @Override
     @Nullable
     public ICraftingTaskError calculate() {
@@ -245,36 +360,40 @@ public class CraftingTask implements ICraftingTask {
             throw new IllegalStateException("Task already started!");
         }
 
+        if (calculationPatternIndex == null) {
+            prepareCalculation();
+        }
+
         this.calculationStarted = System.currentTimeMillis();
 
-        int qty = this.quantity;
+        if (requested.getItem() != null) {
+            this.calculationItems.add(requested.getItem().getItem());
+        } else {
+            this.calculationFluids.add(requested.getFluid().getFluid());
+        }
+
         int qtyPerCraft = getQuantityPerCraft();
-        int crafted = 0;
+        int executions = (this.quantity - 1) / Math.max(1, qtyPerCraft) + 1;
 
         IStackList<ItemStack> results = API.instance().createItemStackList();
         IStackList<FluidStack> fluidResults = API.instance().createFluidStackList();
 
-        IStackList<ItemStack> storage = network.getItemStorageCache().getList().copy();
-        IStackList<FluidStack> fluidStorage = network.getFluidStorageCache().getList().copy();
-
-        ICraftingPatternChainList patternChainList = network.getCraftingManager().createPatternChainList();
+        ICraftingPatternChainList patternChainList = calculationPatternIndex.createPatternChainList();
 
         ICraftingPatternChain patternChain = patternChainList.getChain(pattern);
 
-        while (qty > 0) {
-            ICraftingTaskError result = calculateInternal(storage, fluidStorage, results, fluidResults, patternChainList, patternChain.current(), true);
-
-            if (result != null) {
-                return result;
-            }
-
-            qty -= qtyPerCraft;
+        ICraftingTaskError result = calculateChain(calculationStorage, calculationFluidStorage, results, fluidResults, patternChainList, patternChain, executions, true);
 
-            crafted += qtyPerCraft;
+        this.calculationStorage = null;
+        this.calculationFluidStorage = null;
+        this.calculationPatternIndex = null;
 
-            patternChain.cycle();
+        if (result != null) {
+            return result;
         }
 
+        long crafted = (long) executions * qtyPerCraft;
+
         if (requested.getItem() != null) {
             this.toCraft.add(requested.getItem(), crafted);
         } else {
@@ -326,6 +445,49 @@ public class CraftingTask implements ICraftingTask {
         }
     }
 
+    // Spreads the executions over the patterns in the chain the same way as cycling the chain once per execution would,
+    // but calculates every pattern only once for all of its executions.
+    @Nullable
+    private ICraftingTaskError calculateChain(
+        IStackList<ItemStack> mutatedStorage,
+        IStackList<FluidStack> mutatedFluidStorage,
+        IStackList<ItemStack> results,
+        IStackList<FluidStack> fluidResults,
+        ICraftingPatternChainList patternChainList,
+        ICraftingPatternChain patternChain,
+        int executions,
+        boolean root) {
+
+        List<ICraftingPattern> patterns = new ArrayList<>();
+
+        ICraftingPattern first = patternChain.current();
+
+        do {
+            patterns.add(patternChain.current());
+
+            patternChain.cycle();
+        } while (patterns.size() < executions && patternChain.current() != first);
+
+        // If we went around the whole chain, the chain is back at the first pattern and still has to cycle for the remaining executions.
+        if (patterns.size() < executions) {
+            for (int i = 0; i < executions % patterns.size(); ++i) {
+                patternChain.cycle();
+            }
+        }
+
+        for (int i = 0; i < patterns.size(); ++i) {
+            int patternExecutions = executions / patterns.size() + (i < executions % patterns.size() ? 1 : 0);
+
+            ICraftingTaskError result = calculateInternal(mutatedStorage, mutatedFluidStorage, results, fluidResults, patternChainList, patterns.get(i), root, patternExecutions);
+
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return null;
+    }
+
     @Nullable
     private ICraftingTaskError calculateInternal(
         IStackList<ItemStack> mutatedStorage,
@@ -334,7 +496,8 @@ public class CraftingTask implements ICraftingTask {
         IStackList<FluidStack> fluidResults,
         ICraftingPatternChainList patternChainList,
         ICraftingPattern pattern,
-        boolean root) {
+        boolean root,
+        int executions) {
 
         if (System.currentTimeMillis() - calculationStarted > RS.INSTANCE.config.calculationTimeoutMs) {
             return new CraftingTaskError(CraftingTaskErrorType.TOO_COMPLEX);
@@ -349,13 +512,23 @@ public class CraftingTask implements ICraftingTask {
 
         NonNullList<ItemStack> took = NonNullList.create();
 
+        // Per input slot, the alternatives in the order they were taken.
+        List<List<ItemStack>> itemsToExtractPerSlot = new ArrayList<>();
+        List<List<FluidStack>> fluidsToExtractPerSlot = new ArrayList<>();
+
         for (NonNullList<ItemStack> inputs : pattern.getInputs()) {
+            List<ItemStack> slotToExtract = new ArrayList<>();
+
+            itemsToExtractPerSlot.add(slotToExtract);
+
             if (inputs.isEmpty()) {
                 took.add(ItemStack.EMPTY);
 
                 continue;
             }
 
+            inputs.forEach(input -> calculationItems.add(input.getItem()));
+
             PossibleInputs possibleInputs = new PossibleInputs(new ArrayList<>(inputs));
             possibleInputs.sort(mutatedStorage, results);
 
@@ -366,13 +539,18 @@ public class CraftingTask implements ICraftingTask {
 
             took.add(possibleInput);
 
-            int remaining = possibleInput.getCount();
+            if (isTooLarge(possibleInput.getCount(), executions)) {
+                return new CraftingTaskError(CraftingTaskErrorType.TOO_COMPLEX);
+            }
+
+            int remaining = possibleInput.getCount() * executions;
 
             while (remaining > 0) {
                 if (fromSelf != null) {
                     int toTake = Math.min(remaining, fromSelf.getCount());
 
                     itemsToExtract.add(possibleInput, toTake);
+                    addToSlot(slotToExtract, possibleInput, toTake);
 
                     results.remove(fromSelf, toTake);
 
@@ -385,6 +563,7 @@ public class CraftingTask implements ICraftingTask {
                     this.toTake.add(possibleInput, toTake);
 
                     itemsToExtract.add(possibleInput, toTake);
+                    addToSlot(slotToExtract, possibleInput, toTake);
 
                     mutatedStorage.remove(fromNetwork, toTake);
 
@@ -392,15 +571,19 @@ public class CraftingTask implements ICraftingTask {
 
                     fromNetwork = mutatedStorage.get(possibleInput);
 
-                    toExtractInitial.add(took.get(took.size() - 1));
+                    toExtractInitial.add(possibleInput, toTake);
                 } else {
-                    ICraftingPattern subPattern = network.getCraftingManager().getPattern(possibleInput);
+                    ICraftingPattern subPattern = calculationPatternIndex.getPattern(possibleInput);
 
                     if (subPattern != null) {
                         ICraftingPatternChain subPatternChain = patternChainList.getChain(subPattern);
 
+                        int quantityPerExecution = Math.max(1, getQuantityPerExecution(subPattern, possibleInput));
+
                         while ((fromSelf == null ? 0 : fromSelf.getCount()) < remaining) {
-                            ICraftingTaskError result = calculateInternal(mutatedStorage, mutatedFluidStorage, results, fluidResults, patternChainList, subPatternChain.current(), false);
+                            int needed = remaining - (fromSelf == null ? 0 : fromSelf.getCount());
+
+                            ICraftingTaskError result = calculateChain(mutatedStorage, mutatedFluidStorage, results, fluidResults, patternChainList, subPatternChain, (needed - 1) / quantityPerExecution + 1, false);
 
                             if (result != null) {
                                 return result;
@@ -412,8 +595,6 @@ public class CraftingTask implements ICraftingTask {
                             }
 
                             fromNetwork = mutatedStorage.get(possibleInput);
-
-                            subPatternChain.cycle();
                         }
 
                         // fromSelf contains the amount crafted after the loop.
@@ -426,6 +607,7 @@ public class CraftingTask implements ICraftingTask {
                             this.missing.add(possibleInput, remaining);
 
                             itemsToExtract.add(possibleInput, remaining);
+                            addToSlot(slotToExtract, possibleInput, remaining);
 
                             remaining = 0;
                         } else {
@@ -441,16 +623,27 @@ public class CraftingTask implements ICraftingTask {
         }
 
         for (FluidStack input : pattern.getFluidInputs()) {
+            List<FluidStack> slotToExtract = new ArrayList<>();
+
+            fluidsToExtractPerSlot.add(slotToExtract);
+
+            calculationFluids.add(input.getFluid());
+
             FluidStack fromSelf = fluidResults.get(input, IComparer.COMPARE_NBT);
             FluidStack fromNetwork = mutatedFluidStorage.get(input, IComparer.COMPARE_NBT);
 
-            int remaining = input.amount;
+            if (isTooLarge(input.amount, executions)) {
+                return new CraftingTaskError(CraftingTaskErrorType.TOO_COMPLEX);
+            }
+
+            int remaining = input.amount * executions;
 
             while (remaining > 0) {
                 if (fromSelf != null) {
                     int toTake = Math.min(remaining, fromSelf.amount);
 
                     fluidsToExtract.add(input, toTake);
+                    addToSlot(slotToExtract, input, toTake);
 
                     fluidResults.remove(input, toTake);
 
@@ -463,6 +656,7 @@ public class CraftingTask implements ICraftingTask {
                     this.toTakeFluids.add(input, toTake);
 
                     fluidsToExtract.add(input, toTake);
+                    addToSlot(slotToExtract, input, toTake);
 
                     mutatedFluidStorage.remove(fromNetwork, toTake);
 
@@ -470,15 +664,19 @@ public class CraftingTask implements ICraftingTask {
 
                     fromNetwork = mutatedFluidStorage.get(input, IComparer.COMPARE_NBT);
 
-                    toExtractInitialFluids.add(input);
+                    toExtractInitialFluids.add(input, toTake);
                 } else {
-                    ICraftingPattern subPattern = network.getCraftingManager().getPattern(input);
+                    ICraftingPattern subPattern = calculationPatternIndex.getPattern(input);
 
                     if (subPattern != null) {
                         ICraftingPatternChain subPatternChain = patternChainList.getChain(subPattern);
 
+                        int quantityPerExecution = Math.max(1, getQuantityPerExecution(subPattern, input));
+
                         while ((fromSelf == null ? 0 : fromSelf.amount) < remaining) {
-                            ICraftingTaskError result = calculateInternal(mutatedStorage, mutatedFluidStorage, results, fluidResults, patternChainList, subPatternChain.current(), false);
+                            int needed = remaining - (fromSelf == null ? 0 : fromSelf.amount);
+
+                            ICraftingTaskError result = calculateChain(mutatedStorage, mutatedFluidStorage, results, fluidResults, patternChainList, subPatternChain, (needed - 1) / quantityPerExecution + 1, false);
 
                             if (result != null) {
                                 return result;
@@ -490,8 +688,6 @@ public class CraftingTask implements ICraftingTask {
                             }
 
                             fromNetwork = mutatedFluidStorage.get(input, IComparer.COMPARE_NBT);
-
-                            subPatternChain.cycle();
                         }
 
                         // fromSelf contains the amount crafted after the loop.
@@ -500,6 +696,7 @@ public class CraftingTask implements ICraftingTask {
                         this.missingFluids.add(input, remaining);
 
                         fluidsToExtract.add(input, remaining);
+                        addToSlot(slotToExtract, input, remaining);
 
                         remaining = 0;
                     }
@@ -509,34 +706,40 @@ public class CraftingTask implements ICraftingTask {
 
         patternsUsed.remove(pattern);
 
+        if (!canOutput(pattern, took, executions)) {
+            return new CraftingTaskError(CraftingTaskErrorType.TOO_COMPLEX);
+        }
+
         if (pattern.isProcessing()) {
             IStackList<ItemStack> itemsToReceive = API.instance().createItemStackList();
             IStackList<FluidStack> fluidsToReceive = API.instance().createFluidStackList();
 
             for (ItemStack output : pattern.getOutputs()) {
-                results.add(output);
+                results.add(output, output.getCount() * executions);
 
-                itemsToReceive.add(output);
+                itemsToReceive.add(output, output.getCount() * executions);
             }
 
             for (FluidStack output : pattern.getFluidOutputs()) {
-                fluidResults.add(output);
+                fluidResults.add(output, output.amount * executions);
 
-                fluidsToReceive.add(output);
+                fluidsToReceive.add(output, output.amount * executions);
             }
 
-            processing.add(new Processing(pattern, itemsToReceive, fluidsToReceive, itemsToExtract, fluidsToExtract, root));
+            processing.add(new Processing(pattern, itemsToReceive, fluidsToReceive, itemsToExtract, fluidsToExtract, itemsToExtractPerSlot, fluidsToExtractPerSlot, root, executions));
         } else {
             if (!fluidsToExtract.isEmpty()) {
                 throw new IllegalStateException("Cannot extract fluids in normal pattern!");
             }
 
-            crafting.add(new Crafting(pattern, took, itemsToExtract, root));
+            crafting.add(new Crafting(pattern, took, itemsToExtract, itemsToExtractPerSlot, root, executions));
+
+            ItemStack output = pattern.getOutput(took);
 
-            results.add(pattern.getOutput(took));
+            results.add(output, output.getCount() * executions);
 
             for (ItemStack byproduct : pattern.getByproducts(took)) {
-                results.add(byproduct);
+                results.add(byproduct, byproduct.getCount() * executions);
             }
         }
 
@@ -551,7 +754,7 @@ public class CraftingTask implements ICraftingTask {
                 ItemStack result = network.extractItem(toExtract, toExtract.getCount(), Action.PERFORM);
 
                 if (result != null) {
-                    internalStorage.insert(toExtract, toExtract.getCount(), Action.PERFORM);
+                    insertIntoInternalStorage(toExtract, toExtract.getCount());
 
                     toRemove.add(result);
                 }
@@ -573,7 +776,7 @@ public class CraftingTask implements ICraftingTask {
                 FluidStack result = network.extractFluid(toExtract, toExtract.amount, Action.PERFORM);
 
                 if (result != null) {
-                    internalFluidStorage.insert(toExtract, toExtract.amount, Action.PERFORM);
+                    insertIntoInternalStorage(toExtract, toExtract.amount);
 
                     toRemove.add(result);
                 }
@@ -597,6 +800,12 @@ public class CraftingTask implements ICraftingTask {
         while (it.hasNext()) {
             Crafting c = it.next();
 
+            if (stepsWaitingForInputs.contains(c)) {
+                skippedStepUpdates++;
+
+                continue;
+            }
+
             ICraftingPatternContainer container = c.getPattern().getContainer();
 
             int interval = container.getUpdateInterval();
@@ -606,24 +815,28 @@ public class CraftingTask implements ICraftingTask {
             }
 
             if (interval == 0 || ticks % interval == 0) {
-                if (counter.getOrDefault(container, 0) == container.getMaximumSuccessfulCraftingUpdates()) {
-                    continue;
-                }
+                while (!c.isDone() && counter.getOrDefault(container, 0) < container.getMaximumSuccessfulCraftingUpdates()) {
+                    List<ItemStack> toExtract = c.getToExtractForNextExecution();
 
-                boolean hasAll = true;
+                    boolean hasAll = true;
 
-                for (ItemStack need : c.getToExtract().getStacks()) {
-                    ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.SIMULATE);
+                    for (ItemStack need : toExtract) {
+                        ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.SIMULATE);
 
-                    if (result == null || result.getCount() != need.getCount()) {
-                        hasAll = false;
+                        if (result == null || result.getCount() != need.getCount()) {
+                            hasAll = false;
 
+                            waitForInput(c, need.getItem());
+
+                            break;
+                        }
+                    }
+
+                    if (!hasAll) {
                         break;
                     }
-                }
 
-                if (hasAll) {
-                    for (ItemStack need : c.getToExtract().getStacks()) {
+                    for (ItemStack need : toExtract) {
                         ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.PERFORM);
 
                         if (result == null || result.getCount() != need.getCount()) {
@@ -631,25 +844,31 @@ public class CraftingTask implements ICraftingTask {
                         }
                     }
 
-                    ItemStack output = c.getPattern().getOutput(c.getTook());
+                    NonNullList<ItemStack> took = c.getTookForNextExecution();
+
+                    ItemStack output = c.getPattern().getOutput(took);
 
                     if (!c.isRoot()) {
-                        this.internalStorage.insert(output, output.getCount(), Action.PERFORM);
+                        insertIntoInternalStorage(output, output.getCount());
                     } else {
                         ItemStack remainder = this.network.insertItem(output, output.getCount(), Action.PERFORM);
 
                         if (remainder != null) {
-                            this.internalStorage.insert(remainder, remainder.getCount(), Action.PERFORM);
+                            insertIntoInternalStorage(remainder, remainder.getCount());
                         }
                     }
 
                     // Byproducts need to always be inserted in the internal storage for later reuse further in the task.
                     // Regular outputs can be inserted into the network *IF* it's a root since it's *NOT* expected to be used later on.
-                    for (ItemStack byp : c.getPattern().getByproducts(c.getTook())) {
-                        this.internalStorage.insert(byp, byp.getCount(), Action.PERFORM);
+                    for (ItemStack byp : c.getPattern().getByproducts(took)) {
+                        insertIntoInternalStorage(byp, byp.getCount());
                     }
 
-                    it.remove();
+                    c.onExecuted();
+
+                    if (c.isDone()) {
+                        it.remove();
+                    }
 
                     network.getCraftingManager().onTaskChanged();
 
@@ -681,6 +900,12 @@ public class CraftingTask implements ICraftingTask {
                 continue;
             }
 
+            if (stepsWaitingForInputs.contains(p)) {
+                skippedStepUpdates++;
+
+                continue;
+            }
+
             int interval = p.getPattern().getContainer().getUpdateInterval();
 
             if (interval < 0) {
@@ -688,98 +913,126 @@ public class CraftingTask implements ICraftingTask {
             }
 
             if (interval == 0 || ticks % interval == 0) {
-                if (counter.getOrDefault(container, 0) == container.getMaximumSuccessfulCraftingUpdates()) {
-                    continue;
+                ProcessingState originalState = p.getState();
+                int originalExecuted = p.getExecuted();
+
+                while (p.getState() != ProcessingState.EXTRACTED_ALL && counter.getOrDefault(container, 0) < container.getMaximumSuccessfulCraftingUpdates()) {
+                    if (!updateProcessingExecution(p)) {
+                        break;
+                    }
+
+                    counter.merge(container, 1, (a, b) -> a + b);
                 }
 
-                ProcessingState originalState = p.getState();
+                if (originalState != p.getState() || originalExecuted != p.getExecuted()) {
+                    network.getCraftingManager().onTaskChanged();
+                }
+            }
+        }
+    }
 
-                if (p.getPattern().getContainer().isLocked()) {
-                    p.setState(ProcessingState.LOCKED);
-                } else {
-                    boolean hasAll = true;
+    // Tries to put the inputs of the next execution in the machine, returns true if that succeeded.
+    private boolean updateProcessingExecution(Processing p) {
+        if (p.getPattern().getContainer().isLocked()) {
+            p.setState(ProcessingState.LOCKED);
 
-                    for (ItemStack need : p.getItemsToPut().getStacks()) {
-                        if (p.getPattern().getContainer().getConnectedInventory() == null) {
-                            p.setState(ProcessingState.MACHINE_NONE);
-                        } else {
-                            ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.SIMULATE);
+            return false;
+        }
 
-                            if (result == null || result.getCount() != need.getCount()) {
-                                hasAll = false;
+        List<ItemStack> itemsToPut = p.getItemsToPutForNextExecution();
+        List<FluidStack> fluidsToPut = p.getFluidsToPutForNextExecution();
 
-                                break;
-                            } else {
-                                p.setState(ProcessingState.READY);
-                            }
-                        }
-                    }
+        boolean hasAll = true;
 
-                    if (hasAll && p.getState() == ProcessingState.READY && !insertIntoInventory(p.getPattern().getContainer().getConnectedInventory(), new ArrayDeque<>(p.getItemsToPut().getStacks()), Action.SIMULATE)) {
-                        p.setState(ProcessingState.MACHINE_DOES_NOT_ACCEPT);
-                    }
+        for (ItemStack need : itemsToPut) {
+            if (p.getPattern().getContainer().getConnectedInventory() == null) {
+                p.setState(ProcessingState.MACHINE_NONE);
+            } else {
+                ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.SIMULATE);
 
-                    for (FluidStack need : p.getFluidsToPut().getStacks()) {
-                        if (p.getPattern().getContainer().getConnectedFluidInventory() == null) {
-                            p.setState(ProcessingState.MACHINE_NONE);
-                        } else {
-                            FluidStack result = this.internalFluidStorage.extract(need, need.amount, IComparer.COMPARE_NBT, Action.SIMULATE);
+                if (result == null || result.getCount() != need.getCount()) {
+                    hasAll = false;
 
-                            if (result == null || result.amount != need.amount) {
-                                hasAll = false;
+                    waitForInput(p, need.getItem());
 
-                                break;
-                            } else if (p.getPattern().getContainer().getConnectedFluidInventory().fill(result, false) != result.amount) {
-                                p.setState(ProcessingState.MACHINE_DOES_NOT_ACCEPT);
+                    break;
+                } else {
+                    p.setState(ProcessingState.READY);
+                }
+            }
+        }
 
-                                break;
-                            } else if (p.getState() == ProcessingState.READY || p.getItemsToPut().isEmpty()) { // If the items were ok (or if we didn't have items).
-                                p.setState(ProcessingState.READY);
-                            }
-                        }
-                    }
+        if (hasAll && p.getState() == ProcessingState.READY && !insertIntoInventory(p.getPattern().getContainer().getConnectedInventory(), new ArrayDeque<>(itemsToPut), Action.SIMULATE)) {
+            p.setState(ProcessingState.MACHINE_DOES_NOT_ACCEPT);
+        }
 
-                    if (p.getState() == ProcessingState.READY && hasAll) {
-                        Deque<ItemStack> toInsert = new ArrayDeque<>();
+        for (FluidStack need : fluidsToPut) {
+            if (p.getPattern().getContainer().getConnectedFluidInventory() == null) {
+                p.setState(ProcessingState.MACHINE_NONE);
+            } else {
+                FluidStack result = this.internalFluidStorage.extract(need, need.amount, IComparer.COMPARE_NBT, Action.SIMULATE);
 
-                        for (ItemStack need : p.getItemsToPut().getStacks()) {
-                            ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.PERFORM);
-                            if (result == null || result.getCount() != need.getCount()) {
-                                throw new IllegalStateException("The internal crafting inventory reported that " + need + " was available but we got " + result);
-                            }
+                if (result == null || result.amount != need.amount) {
+                    hasAll = false;
 
-                            toInsert.add(need);
-                        }
+                    waitForInput(p, need.getFluid());
 
-                        if (!insertIntoInventory(p.getPattern().getContainer().getConnectedInventory(), toInsert, Action.PERFORM)) {
-                            LOGGER.warn(p.getPattern().getContainer().getConnectedInventory() + " unexpectedly didn't accept items, the remainder has been voided!");
-                        }
+                    break;
+                } else if (p.getPattern().getContainer().getConnectedFluidInventory().fill(result, false) != result.amount) {
+                    p.setState(ProcessingState.MACHINE_DOES_NOT_ACCEPT);
 
-                        for (FluidStack need : p.getFluidsToPut().getStacks()) {
-                            FluidStack result = this.internalFluidStorage.extract(need, need.amount, IComparer.COMPARE_NBT, Action.PERFORM);
-                            if (result == null || result.amount != need.amount) {
-                                throw new IllegalStateException("The internal crafting inventory reported that " + need + " was available but we got " + result);
-                            }
+                    break;
+                } else if (p.getState() == ProcessingState.READY || itemsToPut.isEmpty()) { // If the items were ok (or if we didn't have items).
+                    p.setState(ProcessingState.READY);
+                }
+            }
+        }
 
-                            int filled = p.getPattern().getContainer().getConnectedFluidInventory().fill(result, true);
-                            if (filled != result.amount) {
-                                LOGGER.warn(p.getPattern().getContainer().getConnectedFluidInventory() + " unexpectedly didn't accept fluids, the remainder has been voided!");
-                            }
-                        }
+        if (p.getState() != ProcessingState.READY || !hasAll) {
+            return false;
+        }
 
-                        p.setState(ProcessingState.EXTRACTED_ALL);
+        Deque<ItemStack> toInsert = new ArrayDeque<>();
 
-                        p.getPattern().getContainer().onUsedForProcessing();
+        for (ItemStack need : itemsToPut) {
+            ItemStack result = this.internalStorage.extract(need, need.getCount(), DEFAULT_EXTRACT_FLAGS, Action.PERFORM);
+            if (result == null || result.getCount() != need.getCount()) {
+                throw new IllegalStateException("The internal crafting inventory reported that " + need + " was available but we got " + result);
+            }
 
-                        counter.merge(container, 1, (a, b) -> a + b);
-                    }
-                }
+            toInsert.add(need);
+        }
 
-                if (originalState != p.getState()) {
-                    network.getCraftingManager().onTaskChanged();
-                }
+        if (!insertIntoInventory(p.getPattern().getContainer().getConnectedInventory(), toInsert, Action.PERFORM)) {
+            LOGGER.warn(p.getPattern().getContainer().getConnectedInventory() + " unexpectedly didn't accept items, the remainder has been voided!");
+        }
+
+        for (FluidStack need : fluidsToPut) {
+            FluidStack result = this.internalFluidStorage.extract(need, need.amount, IComparer.COMPARE_NBT, Action.PERFORM);
+            if (result == null || result.amount != need.amount) {
+                throw new IllegalStateException("The internal crafting inventory reported that " + need + " was available but we got " + result);
+            }
+
+            int filled = p.getPattern().getContainer().getConnectedFluidInventory().fill(result, true);
+            if (filled != result.amount) {
+                LOGGER.warn(p.getPattern().getContainer().getConnectedFluidInventory() + " unexpectedly didn't accept fluids, the remainder has been voided!");
             }
         }
+
+        p.onExecuted();
+
+        // Outputs can come in as soon as the first execution is put in the machine.
+        if (p.getExecuted() == 1) {
+            addTrackedReceiver(p);
+        }
+
+        if (p.getExecuted() >= p.getQuantity()) {
+            p.setState(ProcessingState.EXTRACTED_ALL);
+        }
+
+        p.getPattern().getContainer().onUsedForProcessing();
+
+        return true;
     }
 
     private static boolean insertIntoInventory(@Nullable IItemHandler dest, Deque<ItemStack> stacks, Action action) {
@@ -825,7 +1078,22 @@ public class CraftingTask implements ICraftingTask {
             return 0;
         }
 
-        return 100 - (int) (((float) (crafting.size() + processing.size()) / (float) totalSteps) * 100F);
+        return 100 - (int) (((float) getRemainingSteps() / (float) totalSteps) * 100F);
+    }
+
+    private int getRemainingSteps() {
+        int steps = 0;
+
+        for (Crafting c : crafting) {
+            steps += c.getQuantity() - c.getExecuted();
+        }
+
+        for (Processing p : processing) {
+            // A processing step is only done when all its outputs are received.
+            steps += Math.max(1, p.getQuantity() - p.getExecuted());
+        }
+
+        return steps;
     }
 
     @Override
@@ -839,7 +1107,7 @@ public class CraftingTask implements ICraftingTask {
         if (executionStarted == -1) {
             executionStarted = System.currentTimeMillis();
 
-            totalSteps = crafting.size() + processing.size();
+            totalSteps = getRemainingSteps();
         }
 
         ++ticks;
@@ -903,27 +1171,134 @@ public class CraftingTask implements ICraftingTask {
 
     @Override
     public int getQuantityPerCraft() {
+        if (requested.getItem() != null) {
+            return getQuantityPerExecution(pattern, requested.getItem());
+        } else {
+            return getQuantityPerExecution(pattern, requested.getFluid());
+        }
+    }
+
+    private static int getQuantityPerExecution(ICraftingPattern pattern, ItemStack stack) {
         int qty = 0;
 
-        if (requested.getItem() != null) {
-            for (ItemStack output : pattern.getOutputs()) {
-                if (API.instance().getComparer().isEqualNoQuantity(output, requested.getItem())) {
-                    qty += output.getCount();
+        for (ItemStack output : pattern.getOutputs()) {
+            if (API.instance().getComparer().isEqualNoQuantity(output, stack)) {
+                qty += output.getCount();
 
-                    if (!pattern.isProcessing()) {
-                        break;
-                    }
+                if (!pattern.isProcessing()) {
+                    break;
                 }
             }
+        }
+
+        return qty;
+    }
+
+    private static int getQuantityPerExecution(ICraftingPattern pattern, FluidStack stack) {
+        int qty = 0;
+
+        for (FluidStack output : pattern.getFluidOutputs()) {
+            if (API.instance().getComparer().isEqual(output, stack, IComparer.COMPARE_NBT)) {
+                qty += output.amount;
+            }
+        }
+
+        return qty;
+    }
+
+    private static void addToSlot(List<ItemStack> slotToExtract, ItemStack stack, int amount) {
+        ItemStack last = slotToExtract.isEmpty() ? null : slotToExtract.get(slotToExtract.size() - 1);
+
+        if (last != null && API.instance().getComparer().isEqualNoQuantity(last, stack)) {
+            last.grow(amount);
         } else {
+            slotToExtract.add(ItemHandlerHelper.copyStackWithSize(stack, amount));
+        }
+    }
+
+    private static void addToSlot(List<FluidStack> slotToExtract, FluidStack stack, int amount) {
+        FluidStack last = slotToExtract.isEmpty() ? null : slotToExtract.get(slotToExtract.size() - 1);
+
+        if (last != null && API.instance().getComparer().isEqual(last, stack, IComparer.COMPARE_NBT)) {
+            last.amount += amount;
+        } else {
+            slotToExtract.add(StackUtils.copy(stack, amount));
+        }
+    }
+
+    // The amounts of a step are the amounts of a single execution times the executions, which can't get larger than an int.
+    private static boolean isTooLarge(int amountPerExecution, int executions) {
+        return (long) amountPerExecution * executions > Integer.MAX_VALUE;
+    }
+
+    private static boolean canOutput(ICraftingPattern pattern, NonNullList<ItemStack> took, int executions) {
+        if (pattern.isProcessing()) {
+            for (ItemStack output : pattern.getOutputs()) {
+                if (isTooLarge(output.getCount(), executions)) {
+                    return false;
+                }
+            }
+
             for (FluidStack output : pattern.getFluidOutputs()) {
-                if (API.instance().getComparer().isEqual(output, requested.getFluid(), IComparer.COMPARE_NBT)) {
-                    qty += output.amount;
+                if (isTooLarge(output.amount, executions)) {
+                    return false;
                 }
             }
+
+            return true;
         }
 
-        return qty;
+        if (isTooLarge(pattern.getOutput(took).getCount(), executions)) {
+            return false;
+        }
+
+        for (ItemStack byproduct : pattern.getByproducts(took)) {
+            if (isTooLarge(byproduct.getCount(), executions)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Splits a total amount over the executions of a step, so that all executions together use exactly the total.
+    static int getAmountForExecution(int total, int executions, int execution) {
+        return (int) ((long) total * (execution + 1) / executions - (long) total * execution / executions);
+    }
+
+    /**
+     * Gives the share of a slot that an execution of a step takes.
+     * Every execution takes the next share of the slot, so it only takes from another alternative when the previous one runs out.
+     *
+     * @param slot       the stacks of the slot for all executions, in the order the alternatives were taken
+     * @param amount     gets the amount of a stack
+     * @param copy       copies a stack with another amount
+     * @param executions the amount of executions of the step
+     * @param execution  the execution
+     * @param consumer   gets the stacks of the slot that the execution takes
+     */
+    static <T> void forEachInExecution(List<T> slot, ToIntFunction<T> amount, BiFunction<T, Integer, T> copy, int executions, int execution, Consumer<T> consumer) {
+        long total = 0;
+
+        for (T stack : slot) {
+            total += amount.applyAsInt(stack);
+        }
+
+        long from = total * execution / executions;
+        long to = total * (execution + 1) / executions;
+
+        long position = 0;
+
+        for (T stack : slot) {
+            long start = Math.max(from, position);
+            long end = Math.min(to, position + amount.applyAsInt(stack));
+
+            if (end > start) {
+                consumer.accept(copy.apply(stack, (int) (end - start)));
+            }
+
+            position += amount.applyAsInt(stack);
+        }
     }
 
     @Override
@@ -932,12 +1307,14 @@ public class CraftingTask implements ICraftingTask {
     }
 
     @Override
-    public int onTrackedInsert(ItemStack stack, int size) {
-        for (Processing p : this.processing) {
-            if (p.getState() != ProcessingState.EXTRACTED_ALL) {
-                continue;
-            }
+    public boolean usesTrackedReceivers() {
+        return true;
+    }
 
+    @Override
+    public int onTrackedInsert(ItemStack stack, int size) {
+        // A step that receives all its outputs stops waiting while going over the steps.
+        for (Processing p : new ArrayList<>(processingByItemToReceive.get(stack.getItem()))) {
             ItemStack content = p.getItemsToReceive().get(stack);
 
             if (content != null) {
@@ -953,15 +1330,17 @@ public class CraftingTask implements ICraftingTask {
 
                 if (p.getItemsToReceive().isEmpty() && p.getFluidsToReceive().isEmpty()) {
                     p.setState(ProcessingState.PROCESSED);
+
+                    removeTrackedReceiver(p);
                 }
 
                 if (!p.isRoot()) {
-                    internalStorage.insert(stack, needed, Action.PERFORM);
+                    insertIntoInternalStorage(stack, needed);
                 } else {
                     ItemStack remainder = network.insertItem(stack, needed, Action.PERFORM);
 
                     if (remainder != null) {
-                        internalStorage.insert(stack, needed, Action.PERFORM);
+                        insertIntoInternalStorage(stack, needed);
                     }
                 }
 
@@ -976,11 +1355,8 @@ public class CraftingTask implements ICraftingTask {
 
     @Override
     public int onTrackedInsert(FluidStack stack, int size) {
-        for (Processing p : this.processing) {
-            if (p.getState() != ProcessingState.EXTRACTED_ALL) {
-                continue;
-            }
-
+        // A step that receives all its outputs stops waiting while going over the steps.
+        for (Processing p : new ArrayList<>(processingByFluidToReceive.get(stack.getFluid()))) {
             FluidStack content = p.getFluidsToReceive().get(stack);
 
             if (content != null) {
@@ -996,15 +1372,17 @@ public class CraftingTask implements ICraftingTask {
 
                 if (p.getItemsToReceive().isEmpty() && p.getFluidsToReceive().isEmpty()) {
                     p.setState(ProcessingState.PROCESSED);
+
+                    removeTrackedReceiver(p);
                 }
 
                 if (!p.isRoot()) {
-                    internalFluidStorage.insert(stack, needed, Action.PERFORM);
+                    insertIntoInternalStorage(stack, needed);
                 } else {
                     FluidStack remainder = network.insertFluid(stack, needed, Action.PERFORM);
 
                     if (remainder != null) {
-                        internalFluidStorage.insert(stack, needed, Action.PERFORM);
+                        insertIntoInternalStorage(stack, needed);
                     }
                 }
 
@@ -1017,6 +1395,85 @@ public class CraftingTask implements ICraftingTask {
         return size;
     }
 
+    private void waitForInput(Object step, Item item) {
+        stepsWaitingForInputs.add(step);
+        stepsWaitingForItem.put(item, step);
+    }
+
+    private void waitForInput(Object step, Fluid fluid) {
+        stepsWaitingForInputs.add(step);
+        stepsWaitingForFluid.put(fluid, step);
+    }
+
+    private void insertIntoInternalStorage(ItemStack stack, int size) {
+        internalStorage.insert(stack, size, Action.PERFORM);
+
+        stepsWaitingForInputs.removeAll(stepsWaitingForItem.removeAll(stack.getItem()));
+    }
+
+    private void insertIntoInternalStorage(FluidStack stack, int size) {
+        internalFluidStorage.insert(stack, size, Action.PERFORM);
+
+        stepsWaitingForInputs.removeAll(stepsWaitingForFluid.removeAll(stack.getFluid()));
+    }
+
+    /**
+     * @return the amount of steps that are waiting for their inputs to arrive in the internal storage
+     */
+    public int getStepsWaitingForInputs() {
+        return stepsWaitingForInputs.size();
+    }
+
+    /**
+     * @return the amount of times a step wasn't updated because it was waiting for its inputs
+     */
+    public long getSkippedStepUpdates() {
+        return skippedStepUpdates;
+    }
+
+    @Override
+    public Set<Item> getCalculationItems() {
+        return calculationItems;
+    }
+
+    @Override
+    public Set<Fluid> getCalculationFluids() {
+        return calculationFluids;
+    }
+
+    private void addTrackedReceiver(Processing p) {
+        for (ItemStack stack : p.getItemsToReceive().getStacks()) {
+            if (!processingByItemToReceive.containsKey(stack.getItem())) {
+                network.getCraftingManager().addTrackedReceiver(this, stack.getItem());
+            }
+
+            processingByItemToReceive.put(stack.getItem(), p);
+        }
+
+        for (FluidStack stack : p.getFluidsToReceive().getStacks()) {
+            if (!processingByFluidToReceive.containsKey(stack.getFluid())) {
+                network.getCraftingManager().addTrackedReceiver(this, stack.getFluid());
+            }
+
+            processingByFluidToReceive.put(stack.getFluid(), p);
+        }
+    }
+
+    private void removeTrackedReceiver(Processing p) {
+        // The step can already have received some of its outputs, so go over what was registered instead of what's left to receive.
+        for (Item item : new ArrayList<>(processingByItemToReceive.keySet())) {
+            if (processingByItemToReceive.remove(item, p) && !processingByItemToReceive.containsKey(item)) {
+                network.getCraftingManager().removeTrackedReceiver(this, item);
+            }
+        }
+
+        for (Fluid fluid : new ArrayList<>(processingByFluidToReceive.keySet())) {
+            if (processingByFluidToReceive.remove(fluid, p) && !processingByFluidToReceive.containsKey(fluid)) {
+                network.getCraftingManager().removeTrackedReceiver(this, fluid);
+            }
+        }
+    }
+
     static NBTTagCompound writePatternToNbt(ICraftingPattern pattern) {
         NBTTagCompound tag = new NBTTagCompound();
 
@@ -1057,8 +1514,10 @@ public class CraftingTask implements ICraftingTask {
         }
 
         for (Crafting crafting : this.crafting) {
+            int executions = crafting.getQuantity() - crafting.getExecuted();
+
             for (ItemStack receive : crafting.getPattern().getOutputs()) {
-                elements.add(new CraftingMonitorElementItemRender(receive, 0, 0, 0, 0, receive.getCount()));
+                elements.add(new CraftingMonitorElementItemRender(receive, 0, 0, 0, 0, receive.getCount() * executions));
             }
         }
 
@@ -4,10 +4,17 @@ import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.autocrafting.task.CraftingTaskReadException;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
+import com.raoulvdberge.refinedstorage.apiimpl.API;
+import com.raoulvdberge.refinedstorage.util.StackUtils;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 
 class Processing {
     private static final String NBT_PATTERN = "Pattern";
@@ -15,24 +22,49 @@ class Processing {
     private static final String NBT_FLUIDS_TO_RECEIVE = "FluidsToReceive";
     private static final String NBT_ITEMS_TO_PUT = "ItemsToPut";
     private static final String NBT_FLUIDS_TO_PUT = "FluidsToPut";
+    private static final String NBT_ITEMS_TO_PUT_PER_SLOT = "ItemsToPutPerSlot";
+    private static final String NBT_FLUIDS_TO_PUT_PER_SLOT = "FluidsToPutPerSlot";
     private static final String NBT_STATE = "State";
     private static final String NBT_ROOT = "Root";
+    private static final String NBT_QUANTITY = "Quantity";
+    private static final String NBT_EXECUTED = "Executed";
 
     private ICraftingPattern pattern;
     private IStackList<ItemStack> itemsToReceive;
     private IStackList<FluidStack> fluidsToReceive;
     private IStackList<ItemStack> itemsToPut;
     private IStackList<FluidStack> fluidsToPut;
+    // Null for steps that were saved before these were kept.
+    @Nullable
+    private List<List<ItemStack>> itemsToPutPerSlot;
+    @Nullable
+    private List<List<FluidStack>> fluidsToPutPerSlot;
     private ProcessingState state = ProcessingState.READY;
     private boolean root;
-
-    public Processing(ICraftingPattern pattern, IStackList<ItemStack> itemsToReceive, IStackList<FluidStack> fluidsToReceive, IStackList<ItemStack> itemsToPut, IStackList<FluidStack> fluidsToPut, boolean root) {
+    private int quantity;
+    private int executed;
+
+    /**
+     * @param pattern            the pattern
+     * @param itemsToReceive     the items to receive for all executions
+     * @param fluidsToReceive    the fluids to receive for all executions
+     * @param itemsToPut         the items to put in the machine for all executions
+     * @param fluidsToPut        the fluids to put in the machine for all executions
+     * @param itemsToPutPerSlot  the items to put in the machine for all executions per input slot, in the order the alternatives were taken
+     * @param fluidsToPutPerSlot the fluids to put in the machine for all executions per fluid input
+     * @param root               whether this is the root step
+     * @param quantity           the amount of times the pattern is executed
+     */
+    public Processing(ICraftingPattern pattern, IStackList<ItemStack> itemsToReceive, IStackList<FluidStack> fluidsToReceive, IStackList<ItemStack> itemsToPut, IStackList<FluidStack> fluidsToPut, List<List<ItemStack>> itemsToPutPerSlot, List<List<FluidStack>> fluidsToPutPerSlot, boolean root, int quantity) {
         this.pattern = pattern;
         this.itemsToReceive = itemsToReceive;
         this.fluidsToReceive = fluidsToReceive;
         this.itemsToPut = itemsToPut;
         this.fluidsToPut = fluidsToPut;
+        this.itemsToPutPerSlot = itemsToPutPerSlot;
+        this.fluidsToPutPerSlot = fluidsToPutPerSlot;
         this.root = root;
+        this.quantity = quantity;
     }
 
     public Processing(INetwork network, NBTTagCompound tag) throws CraftingTaskReadException {
@@ -43,6 +75,22 @@ class Processing {
         this.itemsToPut = CraftingTask.readItemStackList(tag.getTagList(NBT_ITEMS_TO_PUT, Constants.NBT.TAG_COMPOUND));
         this.fluidsToPut = CraftingTask.readFluidStackList(tag.getTagList(NBT_FLUIDS_TO_PUT, Constants.NBT.TAG_COMPOUND));
         this.state = ProcessingState.values()[tag.getInteger(NBT_STATE)];
+
+        if (tag.hasKey(NBT_QUANTITY)) {
+            this.quantity = tag.getInteger(NBT_QUANTITY);
+            this.executed = tag.getInteger(NBT_EXECUTED);
+        } else {
+            this.quantity = 1;
+            this.executed = (state == ProcessingState.EXTRACTED_ALL || state == ProcessingState.PROCESSED) ? 1 : 0;
+        }
+
+        if (tag.hasKey(NBT_ITEMS_TO_PUT_PER_SLOT)) {
+            this.itemsToPutPerSlot = CraftingTask.readItemStackSlots(tag.getTagList(NBT_ITEMS_TO_PUT_PER_SLOT, Constants.NBT.TAG_LIST));
+        }
+
+        if (tag.hasKey(NBT_FLUIDS_TO_PUT_PER_SLOT)) {
+            this.fluidsToPutPerSlot = CraftingTask.readFluidStackSlots(tag.getTagList(NBT_FLUIDS_TO_PUT_PER_SLOT, Constants.NBT.TAG_LIST));
+        }
     }
 
     public ICraftingPattern getPattern() {
@@ -77,6 +125,72 @@ class Processing {
         return root;
     }
 
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getExecuted() {
+        return executed;
+    }
+
+    public void onExecuted() {
+        executed++;
+    }
+
+    /**
+     * @return the share of {@link #getItemsToPut()} that the next execution needs
+     */
+    public List<ItemStack> getItemsToPutForNextExecution() {
+        if (itemsToPutPerSlot != null) {
+            IStackList<ItemStack> stacks = API.instance().createItemStackList();
+
+            for (List<ItemStack> slot : itemsToPutPerSlot) {
+                CraftingTask.forEachInExecution(slot, ItemStack::getCount, ItemHandlerHelper::copyStackWithSize, quantity, executed, stacks::add);
+            }
+
+            return new ArrayList<>(stacks.getStacks());
+        }
+
+        List<ItemStack> stacks = new ArrayList<>();
+
+        for (ItemStack stack : itemsToPut.getStacks()) {
+            int amount = CraftingTask.getAmountForExecution(stack.getCount(), quantity, executed);
+
+            if (amount > 0) {
+                stacks.add(ItemHandlerHelper.copyStackWithSize(stack, amount));
+            }
+        }
+
+        return stacks;
+    }
+
+    /**
+     * @return the share of {@link #getFluidsToPut()} that the next execution needs
+     */
+    public List<FluidStack> getFluidsToPutForNextExecution() {
+        if (fluidsToPutPerSlot != null) {
+            IStackList<FluidStack> stacks = API.instance().createFluidStackList();
+
+            for (List<FluidStack> slot : fluidsToPutPerSlot) {
+                CraftingTask.forEachInExecution(slot, stack -> stack.amount, StackUtils::copy, quantity, executed, stacks::add);
+            }
+
+            return new ArrayList<>(stacks.getStacks());
+        }
+
+        List<FluidStack> stacks = new ArrayList<>();
+
+        for (FluidStack stack : fluidsToPut.getStacks()) {
+            int amount = CraftingTask.getAmountForExecution(stack.amount, quantity, executed);
+
+            if (amount > 0) {
+                stacks.add(StackUtils.copy(stack, amount));
+            }
+        }
+
+        return stacks;
+    }
+
     public NBTTagCompound writeToNbt() {
         NBTTagCompound tag = new NBTTagCompound();
 
@@ -87,6 +201,16 @@ class Processing {
         tag.setTag(NBT_ITEMS_TO_PUT, CraftingTask.writeItemStackList(itemsToPut));
         tag.setTag(NBT_FLUIDS_TO_PUT, CraftingTask.writeFluidStackList(fluidsToPut));
         tag.setInteger(NBT_STATE, state.ordinal());
+        tag.setInteger(NBT_QUANTITY, quantity);
+        tag.setInteger(NBT_EXECUTED, executed);
+
+        if (itemsToPutPerSlot != null) {
+            tag.setTag(NBT_ITEMS_TO_PUT_PER_SLOT, CraftingTask.writeItemStackSlots(itemsToPutPerSlot));
+        }
+
+        if (fluidsToPutPerSlot != null) {
+            tag.setTag(NBT_FLUIDS_TO_PUT_PER_SLOT, CraftingTask.writeFluidStackSlots(fluidsToPutPerSlot));
+        }
 
         return tag;
     }
@@ -21,6 +21,7 @@ import net.minecraft.world.World;
 
 import javax.annotation.Nullable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 import static com.raoulvdberge.refinedstorage.capability.CapabilityNetworkNodeProxy.NETWORK_NODE_PROXY_CAPABILITY;
@@ -30,6 +31,14 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
     private Set<INetworkNode> nodes = Sets.newConcurrentHashSet();
     private List<INetworkNodeGraphListener> listeners = new LinkedList<>();
 
+    // Nodes per type, only made for the types that are requested and updated with the new and previous nodes on every invalidation.
+    private Map<Class<?>, Set<INetworkNode>> nodesByType = new ConcurrentHashMap<>();
+
+    // The connections found while visiting, used to add and remove nodes without visiting the whole network again.
+    private Connections connections = new Connections();
+    @Nullable
+    private INetworkNode root;
+
     private Set<Consumer<INetwork>> actions = new HashSet<>();
 
     private boolean invalidating = false;
@@ -42,7 +51,7 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
     public void invalidate(Action action, World world, BlockPos origin) {
         this.invalidating = true;
 
-        Operator operator = new Operator(action);
+        Operator operator = new Operator(action, false, new Connections());
 
         TileEntity tile = world.getTileEntity(origin);
         if (tile != null && tile.hasCapability(CapabilityNetworkNodeProxy.NETWORK_NODE_PROXY_CAPABILITY, null)) {
@@ -51,7 +60,11 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
             if (proxy != null) {
                 INetworkNode node = proxy.getNode();
 
+                this.root = node;
+
                 if (node instanceof INetworkNodeVisitor) {
+                    operator.current = node;
+
                     ((INetworkNodeVisitor) node).visit(operator);
                 }
             }
@@ -63,27 +76,152 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
         }
 
         this.nodes = operator.foundNodes;
+        this.connections = operator.connections;
+
+        updateIndices(operator.newNodes, operator.previousNodes);
 
         if (action == Action.PERFORM) {
-            for (INetworkNode node : operator.newNodes) {
-                node.onConnected(network);
+            onChanged(operator.newNodes, operator.previousNodes);
+        }
+
+        this.invalidating = false;
+    }
+
+    @Override
+    public void invalidateAdded(World world, BlockPos pos) {
+        this.invalidating = true;
+
+        Operator operator = new Operator(Action.PERFORM, true, connections);
+
+        // Start from the connected neighbors, so the placed node is only reached if they actually conduct to it.
+        for (EnumFacing facing : EnumFacing.VALUES) {
+            BlockPos neighborPos = pos.offset(facing);
+            TileEntity tile = world.getTileEntity(neighborPos);
+
+            if (tile != null && tile.hasCapability(NETWORK_NODE_PROXY_CAPABILITY, facing.getOpposite())) {
+                INetworkNode neighbor = NETWORK_NODE_PROXY_CAPABILITY.cast(tile.getCapability(NETWORK_NODE_PROXY_CAPABILITY, facing.getOpposite())).getNode();
+
+                if (neighbor.equals(root) || nodes.contains(neighbor)) {
+                    operator.toCheck.add(new Visitor(neighbor, world, neighborPos, null, tile));
+                }
             }
+        }
+
+        if (operator.toCheck.isEmpty()) {
+            this.invalidating = false;
+
+            invalidate(Action.PERFORM, network.world(), network.getPosition());
+
+            return;
+        }
+
+        Visitor currentVisitor;
+        while ((currentVisitor = operator.toCheck.poll()) != null) {
+            currentVisitor.visit(operator);
+        }
+
+        nodes.addAll(operator.newNodes);
+
+        updateIndices(operator.newNodes, Collections.emptySet());
+
+        onChanged(operator.newNodes, Collections.emptySet());
 
-            for (INetworkNode node : operator.previousNodes) {
-                node.onDisconnected(network);
+        this.invalidating = false;
+    }
+
+    @Override
+    public void invalidateRemoved(INetworkNode node) {
+        if (node.equals(root) || !nodes.contains(node)) {
+            invalidate(Action.PERFORM, network.world(), network.getPosition());
+
+            return;
+        }
+
+        this.invalidating = true;
+
+        // Only the nodes that were first reached through the removed node can lose their connection.
+        Set<INetworkNode> affected = connections.getDescendants(node);
+
+        connections.remove(node);
+
+        Set<INetworkNode> reached = new HashSet<>();
+        Queue<INetworkNode> toCheck = new ArrayDeque<>();
+
+        for (INetworkNode affectedNode : affected) {
+            for (INetworkNode source : connections.getIncoming(affectedNode)) {
+                if (!affected.contains(source) && (source.equals(root) || nodes.contains(source))) {
+                    connections.setParent(affectedNode, source);
+
+                    reached.add(affectedNode);
+                    toCheck.add(affectedNode);
+
+                    break;
+                }
             }
+        }
+
+        INetworkNode current;
+        while ((current = toCheck.poll()) != null) {
+            for (INetworkNode target : connections.getOutgoing(current)) {
+                if (affected.contains(target) && reached.add(target)) {
+                    connections.setParent(target, current);
+
+                    toCheck.add(target);
+                }
+            }
+        }
+
+        Set<INetworkNode> previousNodes = new HashSet<>();
+        previousNodes.add(node);
 
-            actions.forEach(h -> h.accept(network));
-            actions.clear();
+        for (INetworkNode affectedNode : affected) {
+            if (!reached.contains(affectedNode)) {
+                connections.remove(affectedNode);
 
-            if (!operator.newNodes.isEmpty() || !operator.previousNodes.isEmpty()) {
-                listeners.forEach(INetworkNodeGraphListener::onChanged);
+                previousNodes.add(affectedNode);
             }
         }
 
+        nodes.removeAll(previousNodes);
+
+        updateIndices(Collections.emptySet(), previousNodes);
+
+        onChanged(Collections.emptySet(), previousNodes);
+
         this.invalidating = false;
     }
 
+    private void updateIndices(Set<INetworkNode> newNodes, Set<INetworkNode> previousNodes) {
+        for (Map.Entry<Class<?>, Set<INetworkNode>> index : nodesByType.entrySet()) {
+            for (INetworkNode node : previousNodes) {
+                index.getValue().remove(node);
+            }
+
+            for (INetworkNode node : newNodes) {
+                if (index.getKey().isInstance(node)) {
+                    index.getValue().add(node);
+                }
+            }
+        }
+    }
+
+    private void onChanged(Set<INetworkNode> newNodes, Set<INetworkNode> previousNodes) {
+        for (INetworkNode node : newNodes) {
+            node.onConnected(network);
+        }
+
+        for (INetworkNode node : previousNodes) {
+            node.onDisconnected(network);
+        }
+
+        actions.forEach(h -> h.accept(network));
+        actions.clear();
+
+        if (!newNodes.isEmpty() || !previousNodes.isEmpty()) {
+            listeners.forEach(INetworkNodeGraphListener::onChanged);
+        }
+    }
+
     @Override
     @SuppressWarnings("deprecation")
     public INetwork getNetworkForBCReasons() {
@@ -106,6 +244,21 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
         return nodes;
     }
 
+    @Override
+    public Collection<INetworkNode> all(Class<?> type) {
+        return Collections.unmodifiableSet(nodesByType.computeIfAbsent(type, t -> {
+            Set<INetworkNode> index = Sets.newConcurrentHashSet();
+
+            for (INetworkNode node : nodes) {
+                if (t.isInstance(node)) {
+                    index.add(node);
+                }
+            }
+
+            return index;
+        }));
+    }
+
     @Override
     public void addListener(INetworkNodeGraphListener listener) {
         listeners.add(listener);
@@ -115,6 +268,8 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
     public void disconnectAll() {
         nodes.forEach(n -> n.onDisconnected(network));
         nodes.clear();
+        nodesByType.values().forEach(Set::clear);
+        connections = new Connections();
 
         listeners.forEach(INetworkNodeGraphListener::onChanged);
     }
@@ -142,14 +297,22 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
         private Set<INetworkNode> foundNodes = Sets.newConcurrentHashSet(); // All scanned nodes
 
         private Set<INetworkNode> newNodes = Sets.newConcurrentHashSet(); // All scanned new nodes, that didn't appear in the list before
-        private Set<INetworkNode> previousNodes = Sets.newConcurrentHashSet(nodes); // All unscanned nodes (nodes that were in the previous list, but not in the new list)
+        private Set<INetworkNode> previousNodes; // All unscanned nodes (nodes that were in the previous list, but not in the new list)
 
         private Queue<Visitor> toCheck = new ArrayDeque<>();
 
         private Action action;
+        private boolean incremental; // Only scans the nodes that aren't connected yet, connected nodes aren't visited again
+        private Connections connections;
+
+        @Nullable
+        private INetworkNode current; // The node that is being visited
 
-        public Operator(Action action) {
+        public Operator(Action action, boolean incremental, Connections connections) {
             this.action = action;
+            this.incremental = incremental;
+            this.connections = connections;
+            this.previousNodes = incremental ? Sets.newConcurrentHashSet() : Sets.newConcurrentHashSet(nodes);
         }
 
         @Override
@@ -168,7 +331,19 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
                     return;
                 }
 
+                if (current != null) {
+                    connections.addConnection(current, otherNode);
+                }
+
+                if (incremental && (otherNode.equals(root) || nodes.contains(otherNode))) {
+                    return;
+                }
+
                 if (foundNodes.add(otherNode)) {
+                    if (current != null && !otherNode.equals(root)) {
+                        connections.setParent(otherNode, current);
+                    }
+
                     if (!nodes.contains(otherNode)) {
                         // We can't let the node connect immediately
                         // We can only let the node connect AFTER the nodes list has changed in the graph
@@ -206,6 +381,8 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
 
         @Override
         public void visit(Operator operator) {
+            operator.current = node;
+
             if (node instanceof INetworkNodeVisitor) {
                 ((INetworkNodeVisitor) node).visit(operator);
             } else {
@@ -225,4 +402,77 @@ public class NetworkNodeGraph implements INetworkNodeGraph {
             }
         }
     }
+
+    private static class Connections {
+        private final Map<INetworkNode, Set<INetworkNode>> outgoing = new HashMap<>();
+        private final Map<INetworkNode, Set<INetworkNode>> incoming = new HashMap<>();
+
+        // The node through which a node was reached first, the root isn't in here.
+        private final Map<INetworkNode, INetworkNode> parents = new HashMap<>();
+        private final Map<INetworkNode, Set<INetworkNode>> children = new HashMap<>();
+
+        void addConnection(INetworkNode from, INetworkNode to) {
+            outgoing.computeIfAbsent(from, k -> new HashSet<>()).add(to);
+            incoming.computeIfAbsent(to, k -> new HashSet<>()).add(from);
+        }
+
+        Set<INetworkNode> getOutgoing(INetworkNode node) {
+            return outgoing.getOrDefault(node, Collections.emptySet());
+        }
+
+        Set<INetworkNode> getIncoming(INetworkNode node) {
+            return incoming.getOrDefault(node, Collections.emptySet());
+        }
+
+        void setParent(INetworkNode node, INetworkNode parent) {
+            INetworkNode previousParent = parents.put(node, parent);
+
+            if (previousParent != null) {
+                getChildren(previousParent).remove(node);
+            }
+
+            children.computeIfAbsent(parent, k -> new HashSet<>()).add(node);
+        }
+
+        Set<INetworkNode> getDescendants(INetworkNode node) {
+            Set<INetworkNode> descendants = new HashSet<>();
+            Queue<INetworkNode> toCheck = new ArrayDeque<>(getChildren(node));
+
+            INetworkNode current;
+            while ((current = toCheck.poll()) != null) {
+                if (descendants.add(current)) {
+                    toCheck.addAll(getChildren(current));
+                }
+            }
+
+            return descendants;
+        }
+
+        void remove(INetworkNode node) {
+            for (INetworkNode to : outgoing.getOrDefault(node, Collections.emptySet())) {
+                getIncoming(to).remove(node);
+            }
+
+            for (INetworkNode from : incoming.getOrDefault(node, Collections.emptySet())) {
+                getOutgoing(from).remove(node);
+            }
+
+            INetworkNode parent = parents.remove(node);
+            if (parent != null) {
+                getChildren(parent).remove(node);
+            }
+
+            for (INetworkNode child : children.getOrDefault(node, Collections.emptySet())) {
+                parents.remove(child);
+            }
+
+            outgoing.remove(node);
+            incoming.remove(node);
+            children.remove(node);
+        }
+
+        private Set<INetworkNode> getChildren(INetworkNode node) {
+            return children.getOrDefault(node, Collections.emptySet());
+        }
+    }
 }
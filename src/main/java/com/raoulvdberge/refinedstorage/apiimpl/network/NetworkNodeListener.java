@@ -9,6 +9,7 @@ import com.raoulvdberge.refinedstorage.util.WorldUtils;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.EnumFacing;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 
@@ -19,15 +20,27 @@ public class NetworkNodeListener {
             if (e.phase == TickEvent.Phase.END) {
                 e.world.profiler.startSection("network node ticking");
 
-                for (INetworkNode node : API.instance().getNetworkNodeManager(e.world).all()) {
-                    node.update();
-                }
+                ((NetworkNodeManager) API.instance().getNetworkNodeManager(e.world)).update();
 
                 e.world.profiler.endSection();
             }
         }
     }
 
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load e) {
+        if (!e.getWorld().isRemote) {
+            ((NetworkNodeManager) API.instance().getNetworkNodeManager(e.getWorld())).onChunkLoaded(e.getChunk().getPos());
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload e) {
+        if (!e.getWorld().isRemote) {
+            ((NetworkNodeManager) API.instance().getNetworkNodeManager(e.getWorld())).onChunkUnloaded(e.getChunk().getPos());
+        }
+    }
+
     @SubscribeEvent
     public void onBlockPlace(BlockEvent.PlaceEvent e) {
         if (!e.getWorld().isRemote) {
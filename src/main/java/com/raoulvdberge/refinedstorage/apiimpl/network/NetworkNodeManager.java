@@ -4,18 +4,43 @@ import com.raoulvdberge.refinedstorage.api.network.node.INetworkNode;
 import com.raoulvdberge.refinedstorage.api.network.node.INetworkNodeFactory;
 import com.raoulvdberge.refinedstorage.api.network.node.INetworkNodeManager;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.storage.WorldSavedData;
 import net.minecraftforge.common.util.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Stores the nodes per region of 32 by 32 chunks, every region in its own file in the "refinedstorage_nodes" directory in the data directory of the dimension.
+ * A region is only read when one of its chunks is loaded or when a node in it is requested, and only the regions that are marked for saving are rewritten when the world saves.
+ * The {@link WorldSavedData} itself only serves as a save hook, and to read nodes stored in the old single file format.
+ */
 public class NetworkNodeManager extends WorldSavedData implements INetworkNodeManager {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     public static final String NAME = "refinedstorage_nodes";
 
     private static final String NBT_NODES = "Nodes";
@@ -23,10 +48,34 @@ public class NetworkNodeManager extends WorldSavedData implements INetworkNodeMa
     private static final String NBT_NODE_DATA = "Data";
     private static final String NBT_NODE_POS = "Pos";
 
-    private boolean canReadNodes;
-    private NBTTagList nodesTag;
+    private static final String FILE_EXTENSION = ".dat";
+    private static final String FILE_EXTENSION_TEMP = ".tmp";
+
+    private static final int REGION_SIZE_SHIFT = 5;
+
+    private boolean canReadNodes = true;
+    @Nullable
+    private NBTTagList legacyNodesTag;
+    // The migrated regions that weren't written to their own file yet, the legacy nodes are kept in this file until it's empty.
+    private Set<ChunkPos> unmigratedRegions = ConcurrentHashMap.newKeySet();
+
+    @Nullable
+    private File directory;
 
     private ConcurrentHashMap<BlockPos, INetworkNode> nodes = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<ChunkPos, Map<BlockPos, INetworkNode>> nodesByChunk = new ConcurrentHashMap<>();
+
+    private Set<ChunkPos> loadedRegions = ConcurrentHashMap.newKeySet();
+    private Set<ChunkPos> dirtyRegions = ConcurrentHashMap.newKeySet();
+
+    @Nullable
+    private World world;
+
+    // Only these nodes are updated, the other nodes are sleeping or in an unloaded chunk.
+    private ConcurrentHashMap<BlockPos, INetworkNode> awakeNodes = new ConcurrentHashMap<>();
+    private Map<Long, List<BlockPos>> scheduledWakeUps = new HashMap<>();
+    private long ticks;
+    private int updatedNodes;
 
     public NetworkNodeManager(String name) {
         super(name);
@@ -35,69 +84,281 @@ public class NetworkNodeManager extends WorldSavedData implements INetworkNodeMa
     @Override
     public void readFromNBT(NBTTagCompound tag) {
         if (tag.hasKey(NBT_NODES)) {
-            this.nodesTag = tag.getTagList(NBT_NODES, Constants.NBT.TAG_COMPOUND);
-            this.canReadNodes = true;
+            this.legacyNodesTag = tag.getTagList(NBT_NODES, Constants.NBT.TAG_COMPOUND);
         }
     }
 
     public void tryReadNodes(World world) {
+        // This is called every time the manager is retrieved, so the manager always knows its world.
+        this.world = world;
+
         if (this.canReadNodes) {
             this.canReadNodes = false;
 
-            this.nodes.clear();
+            File worldDirectory = world.getSaveHandler().getWorldDirectory();
+
+            String saveFolder = world.provider.getSaveFolder();
+            if (saveFolder != null) {
+                worldDirectory = new File(worldDirectory, saveFolder);
+            }
+
+            this.directory = new File(worldDirectory, "data" + File.separator + NAME);
+
+            if (legacyNodesTag != null) {
+                for (int i = 0; i < legacyNodesTag.tagCount(); ++i) {
+                    INetworkNode node = readNode(legacyNodesTag.getCompoundTagAt(i));
+
+                    if (node != null) {
+                        // The regions of the legacy nodes don't have a region file yet, so they are complete.
+                        loadedRegions.add(getRegion(node.getPos()));
+                        unmigratedRegions.add(getRegion(node.getPos()));
+                    }
+                }
+
+                LOGGER.info("Migrating {} network nodes to the per-region format", legacyNodesTag.tagCount());
+
+                // Write every region to its own file, this file is written without the legacy nodes once that succeeded.
+                markForSaving();
+            }
+        }
+    }
+
+    private void ensureRegionLoaded(ChunkPos region) {
+        if (directory == null || !loadedRegions.add(region)) {
+            return;
+        }
+
+        File file = getRegionFile(region);
+
+        if (!file.exists()) {
+            return;
+        }
+
+        try (InputStream is = new FileInputStream(file)) {
+            NBTTagList nodesTag = CompressedStreamTools.readCompressed(is).getTagList(NBT_NODES, Constants.NBT.TAG_COMPOUND);
 
             for (int i = 0; i < nodesTag.tagCount(); ++i) {
-                NBTTagCompound nodeTag = nodesTag.getCompoundTagAt(i);
+                readNode(nodesTag.getCompoundTagAt(i));
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not read network nodes from " + file, e);
+        }
+    }
 
-                String id = nodeTag.getString(NBT_NODE_ID);
-                NBTTagCompound data = nodeTag.getCompoundTag(NBT_NODE_DATA);
-                BlockPos pos = BlockPos.fromLong(nodeTag.getLong(NBT_NODE_POS));
+    @Nullable
+    private INetworkNode readNode(NBTTagCompound nodeTag) {
+        String id = nodeTag.getString(NBT_NODE_ID);
+        NBTTagCompound data = nodeTag.getCompoundTag(NBT_NODE_DATA);
+        BlockPos pos = BlockPos.fromLong(nodeTag.getLong(NBT_NODE_POS));
 
-                INetworkNodeFactory factory = API.instance().getNetworkNodeRegistry().get(id);
+        INetworkNodeFactory factory = API.instance().getNetworkNodeRegistry().get(id);
 
-                if (factory != null) {
-                    INetworkNode node = null;
+        if (factory == null) {
+            return null;
+        }
 
-                    try {
-                        node = factory.create(data, world, pos);
-                    } catch (Throwable t) {
-                        t.printStackTrace();
-                    }
+        INetworkNode node = null;
 
-                    if (node != null) {
-                        this.nodes.put(pos, node);
-                    }
+        try {
+            node = factory.create(data, world, pos);
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+
+        if (node != null) {
+            this.nodes.put(pos, node);
+            this.nodesByChunk.computeIfAbsent(new ChunkPos(pos), k -> new ConcurrentHashMap<>()).put(pos, node);
+
+            if (world.isBlockLoaded(pos)) {
+                this.awakeNodes.put(pos, node);
+            }
+        }
+
+        return node;
+    }
+
+    public void update() {
+        List<BlockPos> wakeUps = scheduledWakeUps.remove(ticks);
+        if (wakeUps != null) {
+            wakeUps.forEach(this::wakeUp);
+        }
+
+        updatedNodes = 0;
+
+        for (Map.Entry<BlockPos, INetworkNode> entry : awakeNodes.entrySet()) {
+            INetworkNode node = entry.getValue();
+
+            node.update();
+
+            updatedNodes++;
+
+            int sleepTicks = node.getSleepTicks();
+
+            if (sleepTicks != 0) {
+                awakeNodes.remove(entry.getKey(), node);
+
+                if (sleepTicks > 0) {
+                    scheduledWakeUps.computeIfAbsent(ticks + sleepTicks, k -> new ArrayList<>()).add(entry.getKey());
                 }
             }
         }
+
+        ticks++;
+    }
+
+    public void onChunkLoaded(ChunkPos pos) {
+        getNodesInChunk(pos).forEach(node -> awakeNodes.put(node.getPos(), node));
+    }
+
+    public void onChunkUnloaded(ChunkPos pos) {
+        getNodesInChunk(pos).forEach(node -> awakeNodes.remove(node.getPos(), node));
+    }
+
+    @Override
+    public int getUpdatedNodes() {
+        return updatedNodes;
+    }
+
+    @Override
+    public int getSleepingNodes() {
+        return nodes.size() - awakeNodes.size();
     }
 
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound tag) {
-        NBTTagList list = new NBTTagList();
+        if (directory == null) {
+            // The nodes weren't read yet, so the legacy nodes aren't migrated yet either.
+            if (legacyNodesTag != null) {
+                tag.setTag(NBT_NODES, legacyNodesTag);
+            }
+
+            return tag;
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.error("Could not create network node directory " + directory);
+
+            writeLegacyNodes(tag);
+
+            return tag;
+        }
 
-        for (INetworkNode node : all()) {
+        List<ChunkPos> toSave = new ArrayList<>(dirtyRegions);
+
+        dirtyRegions.removeAll(toSave);
+
+        for (ChunkPos region : toSave) {
             try {
-                NBTTagCompound nodeTag = new NBTTagCompound();
+                writeRegion(region);
 
-                nodeTag.setString(NBT_NODE_ID, node.getId());
-                nodeTag.setLong(NBT_NODE_POS, node.getPos().toLong());
-                nodeTag.setTag(NBT_NODE_DATA, node.write(new NBTTagCompound()));
+                unmigratedRegions.remove(region);
+            } catch (IOException e) {
+                LOGGER.error("Could not save network nodes of region " + region, e);
 
-                list.appendTag(nodeTag);
-            } catch (Throwable t) {
-                t.printStackTrace();
+                // Try again on the next save.
+                dirtyRegions.add(region);
             }
         }
 
-        tag.setTag(NBT_NODES, list);
+        writeLegacyNodes(tag);
 
         return tag;
     }
 
+    private void writeLegacyNodes(NBTTagCompound tag) {
+        if (legacyNodesTag == null) {
+            return;
+        }
+
+        if (unmigratedRegions.isEmpty()) {
+            LOGGER.info("Migrated all network nodes to the per-region format");
+
+            legacyNodesTag = null;
+
+            return;
+        }
+
+        // Write the current state of the regions that aren't in their own file yet, so no changes are lost if the server stops before they are.
+        NBTTagList remaining = new NBTTagList();
+
+        for (ChunkPos region : unmigratedRegions) {
+            writeNodes(region, remaining);
+        }
+
+        legacyNodesTag = remaining;
+
+        tag.setTag(NBT_NODES, legacyNodesTag);
+    }
+
+    private void writeRegion(ChunkPos region) throws IOException {
+        NBTTagList list = new NBTTagList();
+
+        writeNodes(region, list);
+
+        File file = getRegionFile(region);
+
+        if (list.hasNoTags()) {
+            Files.deleteIfExists(file.toPath());
+
+            return;
+        }
+
+        NBTTagCompound regionTag = new NBTTagCompound();
+
+        regionTag.setTag(NBT_NODES, list);
+
+        File tempFile = new File(directory, file.getName() + FILE_EXTENSION_TEMP);
+
+        try (OutputStream os = new FileOutputStream(tempFile)) {
+            CompressedStreamTools.writeCompressed(regionTag, os);
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void writeNodes(ChunkPos region, NBTTagList list) {
+        for (int x = 0; x < 1 << REGION_SIZE_SHIFT; ++x) {
+            for (int z = 0; z < 1 << REGION_SIZE_SHIFT; ++z) {
+                Map<BlockPos, INetworkNode> nodesInChunk = nodesByChunk.get(new ChunkPos((region.x << REGION_SIZE_SHIFT) + x, (region.z << REGION_SIZE_SHIFT) + z));
+
+                if (nodesInChunk == null) {
+                    continue;
+                }
+
+                for (INetworkNode node : nodesInChunk.values()) {
+                    try {
+                        NBTTagCompound nodeTag = new NBTTagCompound();
+
+                        nodeTag.setString(NBT_NODE_ID, node.getId());
+                        nodeTag.setLong(NBT_NODE_POS, node.getPos().toLong());
+                        nodeTag.setTag(NBT_NODE_DATA, node.write(new NBTTagCompound()));
+
+                        list.appendTag(nodeTag);
+                    } catch (Throwable t) {
+                        t.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    private File getRegionFile(ChunkPos region) {
+        return new File(directory, "r." + region.x + "." + region.z + FILE_EXTENSION);
+    }
+
+    private static ChunkPos getRegion(BlockPos pos) {
+        return new ChunkPos((pos.getX() >> 4) >> REGION_SIZE_SHIFT, (pos.getZ() >> 4) >> REGION_SIZE_SHIFT);
+    }
+
+    private static ChunkPos getRegion(ChunkPos pos) {
+        return new ChunkPos(pos.x >> REGION_SIZE_SHIFT, pos.z >> REGION_SIZE_SHIFT);
+    }
+
     @Nullable
     @Override
     public INetworkNode getNode(BlockPos pos) {
+        ensureRegionLoaded(getRegion(pos));
+
         return nodes.get(pos);
     }
 
@@ -107,7 +368,23 @@ public class NetworkNodeManager extends WorldSavedData implements INetworkNodeMa
             throw new IllegalArgumentException("Position cannot be null");
         }
 
+        ensureRegionLoaded(getRegion(pos));
+
         nodes.remove(pos);
+        awakeNodes.remove(pos);
+
+        ChunkPos chunkPos = new ChunkPos(pos);
+
+        Map<BlockPos, INetworkNode> nodesInChunk = nodesByChunk.get(chunkPos);
+        if (nodesInChunk != null) {
+            nodesInChunk.remove(pos);
+
+            if (nodesInChunk.isEmpty()) {
+                nodesByChunk.remove(chunkPos);
+            }
+        }
+
+        markForSaving(pos);
     }
 
     @Override
@@ -120,7 +397,24 @@ public class NetworkNodeManager extends WorldSavedData implements INetworkNodeMa
             throw new IllegalArgumentException("Node cannot be null");
         }
 
+        // Load the region first, so the stored node doesn't overwrite this one later on.
+        ensureRegionLoaded(getRegion(pos));
+
         nodes.put(pos, node);
+        nodesByChunk.computeIfAbsent(new ChunkPos(pos), k -> new ConcurrentHashMap<>()).put(pos, node);
+        awakeNodes.put(pos, node);
+
+        markForSaving(pos);
+    }
+
+    @Override
+    public void wakeUp(BlockPos pos) {
+        INetworkNode node = nodes.get(pos);
+
+        // Nodes in unloaded chunks are woken up when their chunk loads.
+        if (node != null && (world == null || world.isBlockLoaded(pos))) {
+            awakeNodes.put(pos, node);
+        }
     }
 
     @Override
@@ -128,8 +422,31 @@ public class NetworkNodeManager extends WorldSavedData implements INetworkNodeMa
         return nodes.values();
     }
 
+    @Override
+    public Collection<INetworkNode> getNodesInChunk(ChunkPos pos) {
+        ensureRegionLoaded(getRegion(pos));
+
+        Map<BlockPos, INetworkNode> nodesInChunk = nodesByChunk.get(pos);
+
+        return nodesInChunk == null ? Collections.emptyList() : Collections.unmodifiableCollection(nodesInChunk.values());
+    }
+
     @Override
     public void markForSaving() {
+        dirtyRegions.addAll(loadedRegions);
+
         markDirty();
     }
+
+    @Override
+    public void markForSaving(BlockPos pos) {
+        ChunkPos region = getRegion(pos);
+
+        // Regions that aren't loaded can't have changed.
+        if (loadedRegions.contains(region)) {
+            dirtyRegions.add(region);
+
+            markDirty();
+        }
+    }
 }
@@ -17,6 +17,7 @@ import com.raoulvdberge.refinedstorage.util.StackUtils;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.InventoryHelper;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
@@ -133,14 +134,12 @@ public class FluidGridHandler implements IFluidGridHandler {
         FluidStack stack = cache.get(hash);
 
         if (stack != null) {
-            Thread calculationThread = new Thread(() -> {
-                ICraftingTask task = network.getCraftingManager().create(stack, quantity);
-                if (task == null) {
-                    return;
-                }
-
-                ICraftingTaskError error = task.calculate();
+            ICraftingTask task = network.getCraftingManager().create(stack, quantity);
+            if (task == null) {
+                return;
+            }
 
+            boolean queued = RS.INSTANCE.craftingCalculationExecutor.submit(network, player, task, !noPreview, error -> {
                 if (error != null) {
                     RS.INSTANCE.network.sendTo(new MessageGridCraftingPreviewResponse(Collections.singletonList(new CraftingPreviewElementError(error.getType(), error.getRecursedPattern() == null ? ItemStack.EMPTY : error.getRecursedPattern().getStack())), hash, quantity, true), player);
                 } else if (noPreview && !task.hasMissing()) {
@@ -150,9 +149,11 @@ public class FluidGridHandler implements IFluidGridHandler {
                 } else {
                     RS.INSTANCE.network.sendTo(new MessageGridCraftingPreviewResponse(task.getPreviewStacks(), hash, quantity, true), player);
                 }
-            }, "RS crafting preview calculation");
+            });
 
-            calculationThread.start();
+            if (!queued) {
+                player.sendMessage(new TextComponentTranslation("misc.refinedstorage:crafting_calculation.queue_full"));
+            }
         }
     }
 
@@ -17,6 +17,7 @@ import com.raoulvdberge.refinedstorage.util.StackUtils;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.EnumFacing;
+import net.minecraft.util.text.TextComponentTranslation;
 import net.minecraftforge.items.CapabilityItemHandler;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemHandlerHelper;
@@ -177,14 +178,12 @@ public class ItemGridHandler implements IItemGridHandler {
         ItemStack stack = cache.get(hash);
 
         if (stack != null) {
-            Thread calculationThread = new Thread(() -> {
-                ICraftingTask task = network.getCraftingManager().create(stack, quantity);
-                if (task == null) {
-                    return;
-                }
-
-                ICraftingTaskError error = task.calculate();
+            ICraftingTask task = network.getCraftingManager().create(stack, quantity);
+            if (task == null) {
+                return;
+            }
 
+            boolean queued = RS.INSTANCE.craftingCalculationExecutor.submit(network, player, task, !noPreview, error -> {
                 if (error != null) {
                     RS.INSTANCE.network.sendTo(new MessageGridCraftingPreviewResponse(Collections.singletonList(new CraftingPreviewElementError(error.getType(), error.getRecursedPattern() == null ? ItemStack.EMPTY : error.getRecursedPattern().getStack())), hash, quantity, false), player);
                 } else if (noPreview && !task.hasMissing()) {
@@ -194,9 +193,11 @@ public class ItemGridHandler implements IItemGridHandler {
                 } else {
                     RS.INSTANCE.network.sendTo(new MessageGridCraftingPreviewResponse(task.getPreviewStacks(), hash, quantity, false), player);
                 }
-            }, "RS crafting preview calculation");
+            });
 
-            calculationThread.start();
+            if (!queued) {
+                player.sendMessage(new TextComponentTranslation("misc.refinedstorage:crafting_calculation.queue_full"));
+            }
         }
     }
 
@@ -26,8 +26,8 @@ public class NetworkItemHandler implements INetworkItemHandler {
     public void open(EntityPlayer player, ItemStack stack) {
         boolean inRange = false;
 
-        for (INetworkNode node : network.getNodeGraph().all()) {
-            if (node instanceof IWirelessTransmitter && node.canUpdate() && ((IWirelessTransmitter) node).getDimension() == player.dimension) {
+        for (INetworkNode node : network.getNodeGraph().all(IWirelessTransmitter.class)) {
+            if (node.canUpdate() && ((IWirelessTransmitter) node).getDimension() == player.dimension) {
                 IWirelessTransmitter transmitter = (IWirelessTransmitter) node;
 
                 double distance = Math.sqrt(Math.pow(transmitter.getOrigin().getX() - player.posX, 2) + Math.pow(transmitter.getOrigin().getY() - player.posY, 2) + Math.pow(transmitter.getOrigin().getZ() - player.posZ, 2));
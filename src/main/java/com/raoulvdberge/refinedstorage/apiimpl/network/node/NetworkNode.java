@@ -4,6 +4,7 @@ import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.network.INetworkNodeVisitor;
 import com.raoulvdberge.refinedstorage.api.network.node.INetworkNode;
+import com.raoulvdberge.refinedstorage.api.network.node.INetworkNodeManager;
 import com.raoulvdberge.refinedstorage.api.util.Action;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
 import com.raoulvdberge.refinedstorage.apiimpl.util.OneSixMigrationHelper;
@@ -70,6 +71,11 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
         this.redstoneMode = redstoneMode;
 
         markDirty();
+
+        // The energy usage of some nodes depends on the redstone mode, like the Relay.
+        if (network != null) {
+            network.invalidateEnergyUsage();
+        }
     }
 
     @Nonnull
@@ -85,6 +91,8 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
         onConnectedStateChange(network, true);
 
         this.network = network;
+
+        wakeUp();
     }
 
     @Override
@@ -92,6 +100,8 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
         this.network = null;
 
         onConnectedStateChange(network, false);
+
+        wakeUp();
     }
 
     protected void onConnectedStateChange(INetwork network, boolean state) {
@@ -101,7 +111,21 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
     @Override
     public void markDirty() {
         if (!world.isRemote) {
-            API.instance().getNetworkNodeManager(world).markForSaving();
+            INetworkNodeManager manager = API.instance().getNetworkNodeManager(world);
+
+            manager.markForSaving(pos);
+
+            // The configuration or an inventory changed, which can give a sleeping node something to do.
+            manager.wakeUp(pos);
+        }
+    }
+
+    /**
+     * Makes this node update again, see {@link #getSleepTicks()}.
+     */
+    public void wakeUp() {
+        if (!world.isRemote) {
+            API.instance().getNetworkNodeManager(world).wakeUp(pos);
         }
     }
 
@@ -126,6 +150,8 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
 
     public void setThrottlingDisabled() {
         throttlingDisabled = true;
+
+        wakeUp();
     }
 
     @Override
@@ -147,6 +173,8 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
                 }
 
                 if (network != null) {
+                    network.invalidateEnergyUsage();
+
                     onConnectedStateChange(network, canUpdate);
 
                     if (shouldRebuildGraphOnChange()) {
@@ -159,6 +187,25 @@ public abstract class NetworkNode implements INetworkNode, INetworkNodeVisitor {
         }
     }
 
+    @Override
+    public int getSleepTicks() {
+        // Changes of canUpdate are only noticed while updating, so keep updating until they are handled.
+        if (throttlingDisabled || couldUpdate != canUpdate()) {
+            return 0;
+        }
+
+        return canSleep() ? SLEEP_UNTIL_WOKEN : 0;
+    }
+
+    /**
+     * Sleeping nodes are woken up when they connect or disconnect, when they are marked dirty, when a neighbor changes and when the controller starts or stops running.
+     *
+     * @return true if {@link #update()} has nothing to do until this node is woken up, false otherwise
+     */
+    protected boolean canSleep() {
+        return false;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         if (owner != null) {
@@ -33,6 +33,11 @@ public class NetworkNodeCable extends NetworkNode implements ICoverable, INetwor
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public CoverManager getCoverManager() {
         return coverManager;
@@ -32,6 +32,11 @@ public class NetworkNodeCrafterManager extends NetworkNode {
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     public void sendTo(EntityPlayerMP player) {
         if (network != null) {
             RS.INSTANCE.network.sendTo(new MessageCrafterManagerSlotSizes(network.getCraftingManager().getNamedContainers()), player);
@@ -42,6 +42,11 @@ public class NetworkNodeCraftingMonitor extends NetworkNode implements ICrafting
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public boolean hasConnectivityState() {
         return true;
@@ -4,6 +4,7 @@ import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.RSBlocks;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.util.IComparer;
+import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.inventory.fluid.FluidInventory;
 import com.raoulvdberge.refinedstorage.inventory.item.ItemHandlerBase;
 import com.raoulvdberge.refinedstorage.inventory.listener.ListenerNetworkNode;
@@ -72,22 +73,26 @@ public class NetworkNodeDetector extends NetworkNode implements IComparable, ITy
             if (type == IType.ITEMS) {
                 ItemStack slot = itemFilters.getStackInSlot(0);
 
+                IStackList<ItemStack> list = network.getItemStorageCache().getList();
+
                 if (!slot.isEmpty()) {
-                    ItemStack stack = network.getItemStorageCache().getList().get(slot, compare);
+                    ItemStack stack = list.get(slot, compare);
 
-                    powered = isPowered(stack == null ? null : stack.getCount());
+                    powered = isPowered(stack == null ? null : list.getCount(stack));
                 } else {
-                    powered = isPowered(network.getItemStorageCache().getList().getStacks().stream().map(ItemStack::getCount).mapToInt(Number::intValue).sum());
+                    powered = isPowered(list.getStacks().stream().mapToLong(list::getCount).sum());
                 }
             } else if (type == IType.FLUIDS) {
                 FluidStack slot = fluidFilters.getFluid(0);
 
+                IStackList<FluidStack> list = network.getFluidStorageCache().getList();
+
                 if (slot != null) {
-                    FluidStack stack = network.getFluidStorageCache().getList().get(slot, compare);
+                    FluidStack stack = list.get(slot, compare);
 
-                    powered = isPowered(stack == null ? null : stack.amount);
+                    powered = isPowered(stack == null ? null : list.getCount(stack));
                 } else {
-                    powered = isPowered(network.getFluidStorageCache().getList().getStacks().stream().map(s -> s.amount).mapToInt(Number::intValue).sum());
+                    powered = isPowered(list.getStacks().stream().mapToLong(list::getCount).sum());
                 }
             }
         }
@@ -115,7 +120,7 @@ public class NetworkNodeDetector extends NetworkNode implements IComparable, ITy
         this.powered = powered;
     }
 
-    private boolean isPowered(Integer size) {
+    private boolean isPowered(Long size) {
         if (size != null) {
             switch (mode) {
                 case MODE_UNDER:
@@ -152,6 +152,30 @@ public class NetworkNodeExporter extends NetworkNode implements IComparable, ITy
         }
     }
 
+    @Override
+    protected boolean canSleep() {
+        if (!canUpdate()) {
+            return true;
+        }
+
+        // Without filters there's nothing to export.
+        if (type == IType.ITEMS) {
+            for (int i = 0; i < itemFilters.getSlots(); ++i) {
+                if (!itemFilters.getStackInSlot(i).isEmpty()) {
+                    return false;
+                }
+            }
+        } else if (type == IType.FLUIDS) {
+            for (FluidStack fluid : fluidFilters.getFluids()) {
+                if (fluid != null) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public int getCompare() {
         return compare;
@@ -35,6 +35,7 @@ import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -100,6 +101,11 @@ public class NetworkNodeExternalStorage extends NetworkNode implements IStorageP
         }
     }
 
+    @Override
+    protected boolean canSleep() {
+        return !canUpdate();
+    }
+
     @Override
     protected void onDirectionChanged() {
         super.onDirectionChanged();
@@ -223,6 +229,9 @@ public class NetworkNodeExternalStorage extends NetworkNode implements IStorageP
     }
 
     public void updateStorage(INetwork network) {
+        List<IStorageExternal<ItemStack>> previousItemStorages = new ArrayList<>(itemStorages);
+        List<IStorageExternal<FluidStack>> previousFluidStorages = new ArrayList<>(fluidStorages);
+
         itemStorages.clear();
         fluidStorages.clear();
 
@@ -248,8 +257,23 @@ public class NetworkNodeExternalStorage extends NetworkNode implements IStorageP
             }
         }
 
-        network.getNodeGraph().runActionWhenPossible(StorageCacheItem.INVALIDATE);
-        network.getNodeGraph().runActionWhenPossible(StorageCacheFluid.INVALIDATE);
+        network.getNodeGraph().runActionWhenPossible(n -> {
+            // What an old storage added to the list can't be removed incrementally, as its stacks are read from the facing inventory,
+            // which can be gone, replaced or changed by now. Rebuild the whole list instead.
+            if (!previousItemStorages.isEmpty()) {
+                n.getItemStorageCache().invalidate();
+            } else {
+                StorageCacheItem.updateStorages(n, this, canUpdate());
+            }
+
+            if (!previousFluidStorages.isEmpty()) {
+                n.getFluidStorageCache().invalidate();
+            } else {
+                StorageCacheFluid.updateStorages(n, this, canUpdate());
+            }
+
+            n.invalidateEnergyUsage();
+        });
     }
 
     @Override
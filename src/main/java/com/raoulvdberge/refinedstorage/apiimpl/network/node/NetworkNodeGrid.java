@@ -749,6 +749,11 @@ public class NetworkNodeGrid extends NetworkNode implements IGridNetworkAware, I
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         super.write(tag);
@@ -129,6 +129,34 @@ public class NetworkNodeImporter extends NetworkNode implements IComparable, IFi
         }
     }
 
+    @Override
+    protected boolean canSleep() {
+        if (!canUpdate()) {
+            return true;
+        }
+
+        // A whitelist without filters doesn't accept anything.
+        if (mode != IFilterable.WHITELIST) {
+            return false;
+        }
+
+        if (type == IType.ITEMS) {
+            for (int i = 0; i < itemFilters.getSlots(); ++i) {
+                if (!itemFilters.getStackInSlot(i).isEmpty()) {
+                    return false;
+                }
+            }
+        } else if (type == IType.FLUIDS) {
+            for (FluidStack fluid : fluidFilters.getFluids()) {
+                if (fluid != null) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public int getCompare() {
         return compare;
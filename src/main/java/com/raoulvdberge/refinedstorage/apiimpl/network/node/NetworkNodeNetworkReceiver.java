@@ -25,4 +25,9 @@ public class NetworkNodeNetworkReceiver extends NetworkNode {
     public String getId() {
         return ID;
     }
+
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
 }
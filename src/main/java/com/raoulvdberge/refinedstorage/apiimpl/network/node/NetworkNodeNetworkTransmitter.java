@@ -68,6 +68,11 @@ public class NetworkNodeNetworkTransmitter extends NetworkNode {
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public int getEnergyUsage() {
         return RS.INSTANCE.config.networkTransmitterUsage;
@@ -85,6 +85,11 @@ public class NetworkNodeReader extends NetworkNode implements IReader, IGuiReade
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         super.write(tag);
@@ -37,6 +37,11 @@ public class NetworkNodeRelay extends NetworkNode {
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public boolean canConduct(@Nullable EnumFacing direction) {
         return canUpdate();
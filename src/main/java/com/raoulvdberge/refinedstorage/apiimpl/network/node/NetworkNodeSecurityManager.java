@@ -72,6 +72,11 @@ public class NetworkNodeSecurityManager extends NetworkNode implements ISecurity
         }
     }
 
+    @Override
+    protected boolean canSleep() {
+        return ticks > 1;
+    }
+
     private void invalidate() {
         this.cards.clear();
         this.globalCard = null;
@@ -41,6 +41,11 @@ public class NetworkNodeWirelessTransmitter extends NetworkNode implements IWire
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         super.write(tag);
@@ -4,6 +4,7 @@ import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.storage.AccessType;
 import com.raoulvdberge.refinedstorage.api.storage.IStorage;
+import com.raoulvdberge.refinedstorage.api.storage.IStorageCache;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageProvider;
 import com.raoulvdberge.refinedstorage.api.storage.disk.IStorageDisk;
 import com.raoulvdberge.refinedstorage.api.storage.disk.IStorageDiskContainerContext;
@@ -34,6 +35,7 @@ import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.IItemHandlerModifiable;
 
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.function.Predicate;
 
@@ -59,6 +61,9 @@ public class NetworkNodeDiskDrive extends NetworkNode implements IGuiStorage, IS
             super.onContentsChanged(slot);
 
             if (FMLCommonHandler.instance().getEffectiveSide() == Side.SERVER) {
+                IStorageDisk<ItemStack> previousItemDisk = itemDisks[slot];
+                IStorageDisk<FluidStack> previousFluidDisk = fluidDisks[slot];
+
                 StackUtils.createStorages(
                     world,
                     getStackInSlot(slot),
@@ -70,8 +75,8 @@ public class NetworkNodeDiskDrive extends NetworkNode implements IGuiStorage, IS
                 );
 
                 if (network != null) {
-                    network.getItemStorageCache().invalidate();
-                    network.getFluidStorageCache().invalidate();
+                    onDiskChanged(network.getItemStorageCache(), previousItemDisk, itemDisks[slot]);
+                    onDiskChanged(network.getFluidStorageCache(), previousFluidDisk, fluidDisks[slot]);
                 }
 
                 WorldUtils.updateBlock(world, pos);
@@ -139,16 +144,40 @@ public class NetworkNodeDiskDrive extends NetworkNode implements IGuiStorage, IS
         }
     }
 
+    // Only the disk in one slot changed, so there's no need to invalidate the whole storage cache.
+    private <T> void onDiskChanged(IStorageCache<T> cache, @Nullable IStorage<T> previousDisk, @Nullable IStorage<T> disk) {
+        if (previousDisk == disk) {
+            return;
+        }
+
+        if (previousDisk != null) {
+            cache.removeStorage(previousDisk);
+        }
+
+        if (disk != null && canUpdate()) {
+            cache.addStorage(disk);
+        }
+    }
+
+    @Override
+    protected boolean canSleep() {
+        return !blockUpdateRequested;
+    }
+
     void requestBlockUpdate() {
         this.blockUpdateRequested = true;
+
+        wakeUp();
     }
 
     @Override
     public void onConnectedStateChange(INetwork network, boolean state) {
         super.onConnectedStateChange(network, state);
 
-        network.getNodeGraph().runActionWhenPossible(StorageCacheItem.INVALIDATE);
-        network.getNodeGraph().runActionWhenPossible(StorageCacheFluid.INVALIDATE);
+        network.getNodeGraph().runActionWhenPossible(n -> {
+            StorageCacheItem.updateStorages(n, this, canUpdate());
+            StorageCacheFluid.updateStorages(n, this, canUpdate());
+        });
 
         WorldUtils.updateBlock(world, pos);
     }
@@ -69,7 +69,7 @@ public class NetworkNodeFluidStorage extends NetworkNode implements IGuiStorage,
     public void onConnectedStateChange(INetwork network, boolean state) {
         super.onConnectedStateChange(network, state);
 
-        network.getNodeGraph().runActionWhenPossible(StorageCacheFluid.INVALIDATE);
+        network.getNodeGraph().runActionWhenPossible(n -> StorageCacheFluid.updateStorages(n, this, canUpdate()));
     }
 
     @Override
@@ -91,6 +91,11 @@ public class NetworkNodeFluidStorage extends NetworkNode implements IGuiStorage,
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         super.write(tag);
@@ -118,7 +123,6 @@ public class NetworkNodeFluidStorage extends NetworkNode implements IGuiStorage,
 
         if (disk == null) {
             API.instance().getStorageDiskManager(world).set(storageId, disk = API.instance().createDefaultFluidDisk(world, getType().getCapacity()));
-            API.instance().getStorageDiskManager(world).markForSaving();
         }
 
         this.storage = new StorageDiskFluidStorageWrapper(this, disk);
@@ -69,7 +69,7 @@ public class NetworkNodeStorage extends NetworkNode implements IGuiStorage, ISto
     public void onConnectedStateChange(INetwork network, boolean state) {
         super.onConnectedStateChange(network, state);
 
-        network.getNodeGraph().runActionWhenPossible(StorageCacheItem.INVALIDATE);
+        network.getNodeGraph().runActionWhenPossible(n -> StorageCacheItem.updateStorages(n, this, canUpdate()));
     }
 
     @Override
@@ -91,6 +91,11 @@ public class NetworkNodeStorage extends NetworkNode implements IGuiStorage, ISto
         return ID;
     }
 
+    @Override
+    protected boolean canSleep() {
+        return true;
+    }
+
     @Override
     public NBTTagCompound write(NBTTagCompound tag) {
         super.write(tag);
@@ -118,7 +123,6 @@ public class NetworkNodeStorage extends NetworkNode implements IGuiStorage, ISto
 
         if (disk == null) {
             API.instance().getStorageDiskManager(world).set(storageId, disk = API.instance().createDefaultItemDisk(world, getType().getCapacity()));
-            API.instance().getStorageDiskManager(world).markForSaving();
         }
 
         this.storage = new StorageDiskItemStorageWrapper(this, disk);
@@ -30,16 +30,16 @@ public class ReaderWriterChannel implements IReaderWriterChannel {
 
     @Override
     public List<IReader> getReaders() {
-        return network.getNodeGraph().all().stream()
-            .filter(n -> n instanceof IReader && name.equals(((IReader) n).getChannel()))
+        return network.getNodeGraph().all(IReader.class).stream()
+            .filter(n -> name.equals(((IReader) n).getChannel()))
             .map(n -> (IReader) n)
             .collect(Collectors.toList());
     }
 
     @Override
     public List<IWriter> getWriters() {
-        return network.getNodeGraph().all().stream()
-            .filter(n -> n instanceof IWriter && name.equals(((IWriter) n).getChannel()))
+        return network.getNodeGraph().all(IWriter.class).stream()
+            .filter(n -> name.equals(((IWriter) n).getChannel()))
             .map(n -> (IWriter) n)
             .collect(Collectors.toList());
     }
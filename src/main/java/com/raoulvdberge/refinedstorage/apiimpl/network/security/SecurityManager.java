@@ -49,8 +49,8 @@ public class SecurityManager implements ISecurityManager {
         this.cards.clear();
         this.globalCard = null;
 
-        for (INetworkNode node : network.getNodeGraph().all()) {
-            if (node instanceof ISecurityCardContainer && node.canUpdate()) {
+        for (INetworkNode node : network.getNodeGraph().all(ISecurityCardContainer.class)) {
+            if (node.canUpdate()) {
                 ISecurityCardContainer container = (ISecurityCardContainer) node;
 
                 for (ISecurityCard card : container.getCards()) {
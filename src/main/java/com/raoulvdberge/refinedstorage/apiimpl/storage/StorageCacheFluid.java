@@ -1,42 +1,94 @@
 package com.raoulvdberge.refinedstorage.apiimpl.storage;
 
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
+import com.raoulvdberge.refinedstorage.api.network.node.INetworkNode;
 import com.raoulvdberge.refinedstorage.api.storage.*;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
+import gnu.trove.map.hash.TCustomHashMap;
+import gnu.trove.strategy.HashingStrategy;
 import net.minecraftforge.fluids.FluidStack;
+import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
+/**
+ * Changes to the list are sent to the listeners when the cache is flushed, which the network does at the end of every tick.
+ * Multiple changes to the same stack are merged into one, and listeners get all changes in a single bulk update.
+ */
 public class StorageCacheFluid implements IStorageCache<FluidStack> {
     public static final Consumer<INetwork> INVALIDATE = n -> n.getFluidStorageCache().invalidate();
 
+    private static final HashingStrategy<FluidStack> FLUID_HASHING_STRATEGY = new HashingStrategy<FluidStack>() {
+        @Override
+        public int computeHashCode(FluidStack stack) {
+            return 31 * stack.getFluid().hashCode() + (stack.tag == null ? 0 : stack.tag.hashCode());
+        }
+
+        @Override
+        public boolean equals(FluidStack left, FluidStack right) {
+            return left.isFluidEqual(right);
+        }
+    };
+
     private INetwork network;
     private CopyOnWriteArrayList<IStorage<FluidStack>> storages = new CopyOnWriteArrayList<>();
     private IStackList<FluidStack> list = API.instance().createFluidStackList();
     private List<IStorageCacheListener<FluidStack>> listeners = new LinkedList<>();
-    private List<Pair<FluidStack, Integer>> batchedChanges = new ArrayList<>();
+
+    // All changes since the last flush, coalesced per stack.
+    private Map<FluidStack, MutablePair<FluidStack, Integer>> pendingChanges = new TCustomHashMap<>(FLUID_HASHING_STRATEGY);
+    private int pendingChangeCount;
+
+    private long packetsSaved;
+    private long changesSaved;
 
     public StorageCacheFluid(INetwork network) {
         this.network = network;
     }
 
+    /**
+     * Adds the fluid storages of a storage provider to the cache of the network, or removes them, without invalidating the whole cache.
+     *
+     * @param network  the network
+     * @param provider the storage provider
+     * @param add      true to add the storages, false to remove them
+     */
+    public static void updateStorages(INetwork network, IStorageProvider provider, boolean add) {
+        List<IStorage<FluidStack>> providerStorages = new ArrayList<>();
+
+        provider.addFluidStorages(providerStorages);
+
+        for (IStorage<FluidStack> storage : providerStorages) {
+            if (add) {
+                network.getFluidStorageCache().addStorage(storage);
+            } else {
+                network.getFluidStorageCache().removeStorage(storage);
+            }
+        }
+    }
+
     @Override
     public synchronized void invalidate() {
         storages.clear();
 
-        network.getNodeGraph().all().stream()
-            .filter(node -> node.canUpdate() && node instanceof IStorageProvider)
+        network.getNodeGraph().all(IStorageProvider.class).stream()
+            .filter(INetworkNode::canUpdate)
             .forEach(node -> ((IStorageProvider) node).addFluidStorages(storages));
 
         list.clear();
 
+        // The listeners get the whole list again, so the pending changes are already part of that.
+        pendingChanges.clear();
+        pendingChangeCount = 0;
+
         sort();
 
         for (IStorage<FluidStack> storage : storages) {
@@ -52,40 +104,136 @@ public class StorageCacheFluid implements IStorageCache<FluidStack> {
         listeners.forEach(IStorageCacheListener::onInvalidated);
     }
 
+    @Override
+    public synchronized void addStorage(@Nonnull IStorage<FluidStack> storage) {
+        if (storages.contains(storage)) {
+            return;
+        }
+
+        // Insert at the sorted position, instead of resorting all the storages.
+        int index = 0;
+
+        while (index < storages.size() && IStorage.COMPARATOR.compare(storages.get(index), storage) <= 0) {
+            index++;
+        }
+
+        storages.add(index, storage);
+
+        if (storage.getAccessType() != AccessType.INSERT) {
+            for (FluidStack stack : storage.getStacks()) {
+                list.add(stack, stack.amount);
+
+                onChanged(stack, stack.amount);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeStorage(@Nonnull IStorage<FluidStack> storage) {
+        if (!storages.remove(storage)) {
+            return;
+        }
+
+        if (storage.getAccessType() != AccessType.INSERT) {
+            for (FluidStack stack : storage.getStacks()) {
+                // The list can have less than the storage reports, only tell the listeners what was actually removed.
+                int removed = (int) Math.min(list.getCount(stack), stack.amount);
+
+                list.remove(stack, stack.amount);
+
+                if (removed > 0) {
+                    onChanged(stack, -removed);
+                }
+            }
+        }
+    }
+
     @Override
     public synchronized void add(@Nonnull FluidStack stack, int size, boolean rebuilding, boolean batched) {
         list.add(stack, size);
 
         if (!rebuilding) {
-            if (!batched) {
-                listeners.forEach(l -> l.onChanged(stack, size));
-            } else {
-                batchedChanges.add(Pair.of(stack.copy(), size));
-            }
+            onChanged(stack, size);
         }
     }
 
     @Override
     public synchronized void remove(@Nonnull FluidStack stack, int size, boolean batched) {
         if (list.remove(stack, size)) {
-            if (!batched) {
-                listeners.forEach(l -> l.onChanged(stack, -size));
-            } else {
-                batchedChanges.add(Pair.of(stack.copy(), -size));
-            }
+            onChanged(stack, -size);
         }
     }
 
     @Override
     public synchronized void flush() {
-        if (!batchedChanges.isEmpty()) {
-            batchedChanges.forEach(c -> listeners.forEach(l -> l.onChanged(c.getKey(), c.getValue())));
-            batchedChanges.clear();
+        if (!pendingChanges.isEmpty()) {
+            flushChanges();
+        }
+
+        listeners.forEach(IStorageCacheListener::onFlushed);
+    }
+
+    private void flushChanges() {
+        List<Pair<FluidStack, Integer>> changes = new ArrayList<>(pendingChanges.size());
+
+        for (MutablePair<FluidStack, Integer> change : pendingChanges.values()) {
+            if (change.getRight() != 0) {
+                changes.add(change);
+            }
+        }
+
+        // Only grids send the changes to a player, other listeners like the crafting request cache don't send packets.
+        long gridListeners = listeners.stream().filter(l -> l instanceof StorageCacheListenerGridFluid).count();
+
+        if (gridListeners > 0) {
+            // Without batching, every change would be sent to every grid in its own packet.
+            packetsSaved += (pendingChangeCount - (changes.isEmpty() ? 0 : 1)) * gridListeners;
+            changesSaved += (pendingChangeCount - changes.size()) * gridListeners;
+        }
+
+        pendingChanges.clear();
+        pendingChangeCount = 0;
+
+        if (changes.size() > 1) {
+            listeners.forEach(l -> l.onChangedBulk(changes));
+        } else if (changes.size() == 1) {
+            listeners.forEach(l -> l.onChanged(changes.get(0).getLeft(), changes.get(0).getRight()));
+        }
+    }
+
+    private void onChanged(FluidStack stack, int size) {
+        MutablePair<FluidStack, Integer> change = pendingChanges.get(stack);
+
+        if (change == null) {
+            FluidStack copy = stack.copy();
+
+            pendingChanges.put(copy, MutablePair.of(copy, size));
+        } else {
+            change.setRight(change.getRight() + size);
         }
+
+        pendingChangeCount++;
+    }
+
+    /**
+     * @return the amount of packets to grids that weren't sent because changes were batched until the end of the tick
+     */
+    public long getPacketsSaved() {
+        return packetsSaved;
+    }
+
+    /**
+     * @return the amount of changes to grids that weren't sent because they were merged with another change to the same stack
+     */
+    public long getChangesSaved() {
+        return changesSaved;
     }
 
     @Override
-    public void addListener(IStorageCacheListener<FluidStack> listener) {
+    public synchronized void addListener(IStorageCacheListener<FluidStack> listener) {
+        // The new listener gets the whole list when it's attached, so it can't get the pending changes too.
+        flush();
+
         listeners.add(listener);
 
         listener.onAttached();
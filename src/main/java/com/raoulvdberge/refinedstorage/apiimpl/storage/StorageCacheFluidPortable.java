@@ -49,6 +49,16 @@ public class StorageCacheFluidPortable implements IStorageCache<FluidStack> {
         }
     }
 
+    @Override
+    public void addStorage(@Nonnull IStorage<FluidStack> storage) {
+        throw new UnsupportedOperationException("Cannot add storages to portable grid storage cache");
+    }
+
+    @Override
+    public void removeStorage(@Nonnull IStorage<FluidStack> storage) {
+        throw new UnsupportedOperationException("Cannot remove storages from portable grid storage cache");
+    }
+
     @Override
     public void flush() {
         throw new UnsupportedOperationException("Cannot flush portable grid storage cache");
@@ -1,19 +1,28 @@
 package com.raoulvdberge.refinedstorage.apiimpl.storage;
 
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
+import com.raoulvdberge.refinedstorage.api.network.node.INetworkNode;
 import com.raoulvdberge.refinedstorage.api.storage.*;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
+import com.raoulvdberge.refinedstorage.apiimpl.util.ItemStackKey;
 import net.minecraft.item.ItemStack;
+import org.apache.commons.lang3.tuple.MutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Consumer;
 
+/**
+ * Changes to the list are sent to the listeners when the cache is flushed, which the network does at the end of every tick.
+ * Multiple changes to the same stack are merged into one, and listeners get all changes in a single bulk update.
+ */
 public class StorageCacheItem implements IStorageCache<ItemStack> {
     public static final Consumer<INetwork> INVALIDATE = network -> network.getItemStorageCache().invalidate();
 
@@ -21,22 +30,53 @@ public class StorageCacheItem implements IStorageCache<ItemStack> {
     private CopyOnWriteArrayList<IStorage<ItemStack>> storages = new CopyOnWriteArrayList<>();
     private IStackList<ItemStack> list = API.instance().createItemStackList();
     private List<IStorageCacheListener<ItemStack>> listeners = new LinkedList<>();
-    private List<Pair<ItemStack, Integer>> batchedChanges = new ArrayList<>();
+
+    // All changes since the last flush, coalesced per stack, in the order they first changed.
+    private Map<ItemStackKey, MutablePair<ItemStack, Integer>> pendingChanges = new LinkedHashMap<>();
+    private int pendingChangeCount;
+
+    private long packetsSaved;
+    private long changesSaved;
 
     public StorageCacheItem(INetwork network) {
         this.network = network;
     }
 
+    /**
+     * Adds the item storages of a storage provider to the cache of the network, or removes them, without invalidating the whole cache.
+     *
+     * @param network  the network
+     * @param provider the storage provider
+     * @param add      true to add the storages, false to remove them
+     */
+    public static void updateStorages(INetwork network, IStorageProvider provider, boolean add) {
+        List<IStorage<ItemStack>> providerStorages = new ArrayList<>();
+
+        provider.addItemStorages(providerStorages);
+
+        for (IStorage<ItemStack> storage : providerStorages) {
+            if (add) {
+                network.getItemStorageCache().addStorage(storage);
+            } else {
+                network.getItemStorageCache().removeStorage(storage);
+            }
+        }
+    }
+
     @Override
     public synchronized void invalidate() {
         storages.clear();
 
-        network.getNodeGraph().all().stream()
-            .filter(node -> node.canUpdate() && node instanceof IStorageProvider)
+        network.getNodeGraph().all(IStorageProvider.class).stream()
+            .filter(INetworkNode::canUpdate)
             .forEach(node -> ((IStorageProvider) node).addItemStorages(storages));
 
         list.clear();
 
+        // The listeners get the whole list again, so the pending changes are already part of that.
+        pendingChanges.clear();
+        pendingChangeCount = 0;
+
         sort();
 
         for (IStorage<ItemStack> storage : storages) {
@@ -54,45 +94,143 @@ public class StorageCacheItem implements IStorageCache<ItemStack> {
         listeners.forEach(IStorageCacheListener::onInvalidated);
     }
 
+    @Override
+    public synchronized void addStorage(@Nonnull IStorage<ItemStack> storage) {
+        if (storages.contains(storage)) {
+            return;
+        }
+
+        // Insert at the sorted position, instead of resorting all the storages.
+        int index = 0;
+
+        while (index < storages.size() && IStorage.COMPARATOR.compare(storages.get(index), storage) <= 0) {
+            index++;
+        }
+
+        storages.add(index, storage);
+
+        if (storage.getAccessType() != AccessType.INSERT) {
+            for (ItemStack stack : storage.getStacks()) {
+                if (!stack.isEmpty()) {
+                    list.add(stack, stack.getCount());
+
+                    onChanged(stack, stack.getCount());
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeStorage(@Nonnull IStorage<ItemStack> storage) {
+        if (!storages.remove(storage)) {
+            return;
+        }
+
+        if (storage.getAccessType() != AccessType.INSERT) {
+            for (ItemStack stack : storage.getStacks()) {
+                if (stack.isEmpty()) {
+                    continue;
+                }
+
+                // The list can have less than the storage reports, only tell the listeners what was actually removed.
+                int removed = (int) Math.min(list.getCount(stack), stack.getCount());
+
+                list.remove(stack, stack.getCount());
+
+                if (removed > 0) {
+                    onChanged(stack, -removed);
+                }
+            }
+        }
+    }
+
     @Override
     public synchronized void add(@Nonnull ItemStack stack, int size, boolean rebuilding, boolean batched) {
         list.add(stack, size);
 
         if (!rebuilding) {
-            if (!batched) {
-                listeners.forEach(l -> l.onChanged(stack, size));
-            } else {
-                batchedChanges.add(Pair.of(stack.copy(), size));
-            }
+            onChanged(stack, size);
         }
     }
 
     @Override
     public synchronized void remove(@Nonnull ItemStack stack, int size, boolean batched) {
         if (list.remove(stack, size)) {
-            if (!batched) {
-                listeners.forEach(l -> l.onChanged(stack, -size));
-            } else {
-                batchedChanges.add(Pair.of(stack.copy(), -size));
-            }
+            onChanged(stack, -size);
         }
     }
 
     @Override
     public synchronized void flush() {
-        if (!batchedChanges.isEmpty()) {
-            if (batchedChanges.size() > 1) {
-                listeners.forEach(l -> l.onChangedBulk(batchedChanges));
-            } else {
-                batchedChanges.forEach(c -> listeners.forEach(l -> l.onChanged(c.getKey(), c.getValue())));
+        if (!pendingChanges.isEmpty()) {
+            flushChanges();
+        }
+
+        listeners.forEach(IStorageCacheListener::onFlushed);
+    }
+
+    private void flushChanges() {
+        List<Pair<ItemStack, Integer>> changes = new ArrayList<>(pendingChanges.size());
+
+        for (MutablePair<ItemStack, Integer> change : pendingChanges.values()) {
+            if (change.getRight() != 0) {
+                changes.add(change);
             }
+        }
+
+        // Only grids send the changes to a player, other listeners like the crafting request cache don't send packets.
+        long gridListeners = listeners.stream().filter(l -> l instanceof StorageCacheListenerGridItem).count();
+
+        if (gridListeners > 0) {
+            // Without batching, every change would be sent to every grid in its own packet.
+            packetsSaved += (pendingChangeCount - (changes.isEmpty() ? 0 : 1)) * gridListeners;
+            changesSaved += (pendingChangeCount - changes.size()) * gridListeners;
+        }
+
+        pendingChanges.clear();
+        pendingChangeCount = 0;
+
+        if (changes.size() > 1) {
+            listeners.forEach(l -> l.onChangedBulk(changes));
+        } else if (changes.size() == 1) {
+            listeners.forEach(l -> l.onChanged(changes.get(0).getLeft(), changes.get(0).getRight()));
+        }
+    }
 
-            batchedChanges.clear();
+    private void onChanged(ItemStack stack, int size) {
+        MutablePair<ItemStack, Integer> change = pendingChanges.get(new ItemStackKey(stack));
+
+        if (change == null) {
+            ItemStack copy = stack.copy();
+
+            // The key references the tag of the stack it's made from, so make it from our own copy.
+            pendingChanges.put(new ItemStackKey(copy), MutablePair.of(copy, size));
+        } else {
+            change.setRight(change.getRight() + size);
         }
+
+        pendingChangeCount++;
+    }
+
+    /**
+     * @return the amount of packets to grids that weren't sent because changes were batched until the end of the tick
+     */
+    public long getPacketsSaved() {
+        return packetsSaved;
+    }
+
+    /**
+     * @return the amount of changes to grids that weren't sent because they were merged with another change to the same stack
+     */
+    public long getChangesSaved() {
+        return changesSaved;
     }
 
     @Override
-    public void addListener(IStorageCacheListener<ItemStack> listener) {
+    public synchronized void addListener(IStorageCacheListener<ItemStack> listener) {
+        // The new listener gets the whole list when it's attached, so it can't get the pending changes too.
+        flush();
+
         listeners.add(listener);
 
         listener.onAttached();
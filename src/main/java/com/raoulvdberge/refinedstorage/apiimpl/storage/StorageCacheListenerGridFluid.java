@@ -11,12 +11,20 @@ import net.minecraftforge.fluids.FluidStack;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 public class StorageCacheListenerGridFluid implements IStorageCacheListener<FluidStack> {
     private EntityPlayerMP player;
     private INetwork network;
 
+    // The pages of the contents that aren't sent yet, a page is sent every tick until the player closes the grid.
+    private Deque<MessageGridFluidUpdate> pages = new ArrayDeque<>();
+    // The changes since the contents were taken, sent after the last page.
+    private List<Pair<FluidStack, Integer>> changesWhileSending = new ArrayList<>();
+
     public StorageCacheListenerGridFluid(EntityPlayerMP player, INetwork network) {
         this.player = player;
         this.network = network;
@@ -24,7 +32,12 @@ public class StorageCacheListenerGridFluid implements IStorageCacheListener<Flui
 
     @Override
     public void onAttached() {
-        RS.INSTANCE.network.sendTo(new MessageGridFluidUpdate(network, network.getSecurityManager().hasPermission(Permission.AUTOCRAFTING, player)), player);
+        pages.clear();
+        pages.addAll(MessageGridFluidUpdate.createPages(network, network.getSecurityManager().hasPermission(Permission.AUTOCRAFTING, player)));
+
+        changesWhileSending.clear();
+
+        sendNextPage();
     }
 
     @Override
@@ -34,13 +47,36 @@ public class StorageCacheListenerGridFluid implements IStorageCacheListener<Flui
 
     @Override
     public void onChanged(@Nonnull FluidStack stack, int size) {
-        RS.INSTANCE.network.sendTo(new MessageGridFluidDelta(network, network.getFluidStorageTracker(), stack, size), player);
+        if (!pages.isEmpty()) {
+            changesWhileSending.add(Pair.of(stack, size));
+        } else {
+            RS.INSTANCE.network.sendTo(new MessageGridFluidDelta(network, network.getFluidStorageTracker(), stack, size), player);
+        }
     }
 
     @Override
     public void onChangedBulk(@Nonnull List<Pair<FluidStack, Integer>> stacks) {
-        for(Pair<FluidStack, Integer> stack : stacks) {
-            onChanged(stack.getLeft(), stack.getRight());
+        if (!pages.isEmpty()) {
+            changesWhileSending.addAll(stacks);
+        } else {
+            RS.INSTANCE.network.sendTo(new MessageGridFluidDelta(network, network.getFluidStorageTracker(), stacks), player);
+        }
+    }
+
+    @Override
+    public void onFlushed() {
+        if (!pages.isEmpty()) {
+            sendNextPage();
+        }
+    }
+
+    private void sendNextPage() {
+        RS.INSTANCE.network.sendTo(pages.poll(), player);
+
+        if (pages.isEmpty() && !changesWhileSending.isEmpty()) {
+            RS.INSTANCE.network.sendTo(new MessageGridFluidDelta(network, network.getFluidStorageTracker(), changesWhileSending), player);
+
+            changesWhileSending = new ArrayList<>();
         }
     }
 }
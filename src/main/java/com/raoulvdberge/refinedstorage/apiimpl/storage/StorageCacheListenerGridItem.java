@@ -11,12 +11,20 @@ import net.minecraft.item.ItemStack;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 
 public class StorageCacheListenerGridItem implements IStorageCacheListener<ItemStack> {
     private EntityPlayerMP player;
     private INetwork network;
 
+    // The pages of the contents that aren't sent yet, a page is sent every tick until the player closes the grid.
+    private Deque<MessageGridItemUpdate> pages = new ArrayDeque<>();
+    // The changes since the contents were taken, sent after the last page.
+    private List<Pair<ItemStack, Integer>> changesWhileSending = new ArrayList<>();
+
     public StorageCacheListenerGridItem(EntityPlayerMP player, INetwork network) {
         this.player = player;
         this.network = network;
@@ -24,7 +32,12 @@ public class StorageCacheListenerGridItem implements IStorageCacheListener<ItemS
 
     @Override
     public void onAttached() {
-        RS.INSTANCE.network.sendTo(new MessageGridItemUpdate(network, network.getSecurityManager().hasPermission(Permission.AUTOCRAFTING, player)), player);
+        pages.clear();
+        pages.addAll(MessageGridItemUpdate.createPages(network, network.getSecurityManager().hasPermission(Permission.AUTOCRAFTING, player)));
+
+        changesWhileSending.clear();
+
+        sendNextPage();
     }
 
     @Override
@@ -34,11 +47,36 @@ public class StorageCacheListenerGridItem implements IStorageCacheListener<ItemS
 
     @Override
     public void onChanged(@Nonnull ItemStack stack, int size) {
-        RS.INSTANCE.network.sendTo(new MessageGridItemDelta(network, network.getItemStorageTracker(), stack, size), player);
+        if (!pages.isEmpty()) {
+            changesWhileSending.add(Pair.of(stack, size));
+        } else {
+            RS.INSTANCE.network.sendTo(new MessageGridItemDelta(network, network.getItemStorageTracker(), stack, size), player);
+        }
     }
 
     @Override
     public void onChangedBulk(@Nonnull List<Pair<ItemStack, Integer>> stacks) {
-        RS.INSTANCE.network.sendTo(new MessageGridItemDelta(network, network.getItemStorageTracker(), stacks), player);
+        if (!pages.isEmpty()) {
+            changesWhileSending.addAll(stacks);
+        } else {
+            RS.INSTANCE.network.sendTo(new MessageGridItemDelta(network, network.getItemStorageTracker(), stacks), player);
+        }
+    }
+
+    @Override
+    public void onFlushed() {
+        if (!pages.isEmpty()) {
+            sendNextPage();
+        }
+    }
+
+    private void sendNextPage() {
+        RS.INSTANCE.network.sendTo(pages.poll(), player);
+
+        if (pages.isEmpty() && !changesWhileSending.isEmpty()) {
+            RS.INSTANCE.network.sendTo(new MessageGridItemDelta(network, network.getItemStorageTracker(), changesWhileSending), player);
+
+            changesWhileSending = new ArrayList<>();
+        }
     }
 }
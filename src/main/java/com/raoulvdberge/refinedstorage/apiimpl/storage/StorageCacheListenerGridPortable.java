@@ -2,18 +2,19 @@ package com.raoulvdberge.refinedstorage.apiimpl.storage;
 
 import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageCacheListener;
-import com.raoulvdberge.refinedstorage.api.storage.IStorageTracker;
+import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.network.MessageGridItemDelta;
 import com.raoulvdberge.refinedstorage.network.MessageGridItemUpdate;
 import com.raoulvdberge.refinedstorage.tile.grid.portable.IPortableGrid;
-import com.raoulvdberge.refinedstorage.util.StackUtils;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.fml.common.network.ByteBufUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class StorageCacheListenerGridPortable implements IStorageCacheListener<ItemStack> {
     private IPortableGrid portableGrid;
@@ -26,20 +27,15 @@ public class StorageCacheListenerGridPortable implements IStorageCacheListener<I
 
     @Override
     public void onAttached() {
-        RS.INSTANCE.network.sendTo(new MessageGridItemUpdate(buf -> {
-            buf.writeInt(portableGrid.getItemCache().getList().getStacks().size());
-
-            for (ItemStack stack : portableGrid.getItemCache().getList().getStacks()) {
-                StackUtils.writeItemStack(buf, stack, null, false);
-
-                IStorageTracker.IStorageTrackerEntry entry = portableGrid.getItemStorageTracker().get(stack);
-                buf.writeBoolean(entry != null);
-                if (entry != null) {
-                    buf.writeLong(entry.getTime());
-                    ByteBufUtils.writeUTF8String(buf, entry.getName());
-                }
-            }
-        }, false), player);
+        List<Consumer<ByteBuf>> stackWriters = new ArrayList<>();
+
+        IStackList<ItemStack> list = portableGrid.getItemCache().getList();
+
+        for (ItemStack stack : list.getStacks()) {
+            stackWriters.add(buf -> MessageGridItemUpdate.writeStack(buf, null, portableGrid.getItemStorageTracker(), stack, list.getCount(stack), false));
+        }
+
+        RS.INSTANCE.network.sendTo(new MessageGridItemUpdate(stackWriters, false), player);
     }
 
     @Override
@@ -2,18 +2,19 @@ package com.raoulvdberge.refinedstorage.apiimpl.storage;
 
 import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageCacheListener;
-import com.raoulvdberge.refinedstorage.api.storage.IStorageTracker;
+import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.network.MessageGridFluidDelta;
 import com.raoulvdberge.refinedstorage.network.MessageGridFluidUpdate;
 import com.raoulvdberge.refinedstorage.tile.grid.portable.IPortableGrid;
-import com.raoulvdberge.refinedstorage.util.StackUtils;
+import io.netty.buffer.ByteBuf;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fml.common.network.ByteBufUtils;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class StorageCacheListenerGridPortableFluid implements IStorageCacheListener<FluidStack> {
     private IPortableGrid portableGrid;
@@ -26,25 +27,15 @@ public class StorageCacheListenerGridPortableFluid implements IStorageCacheListe
 
     @Override
     public void onAttached() {
-        RS.INSTANCE.network.sendTo(new MessageGridFluidUpdate(buf -> {
-            int size = portableGrid.getFluidCache().getList().getStacks().size();
+        List<Consumer<ByteBuf>> stackWriters = new ArrayList<>();
 
-            buf.writeInt(size);
+        IStackList<FluidStack> list = portableGrid.getFluidCache().getList();
 
-            for (FluidStack stack : portableGrid.getFluidCache().getList().getStacks()) {
-                StackUtils.writeFluidStackAndHash(buf, stack);
-
-                IStorageTracker.IStorageTrackerEntry entry = portableGrid.getFluidStorageTracker().get(stack);
-                buf.writeBoolean(entry != null);
-                if (entry != null) {
-                    buf.writeLong(entry.getTime());
-                    ByteBufUtils.writeUTF8String(buf, entry.getName());
-                }
+        for (FluidStack stack : list.getStacks()) {
+            stackWriters.add(buf -> MessageGridFluidUpdate.writeStack(buf, portableGrid.getFluidStorageTracker(), stack, list.getCount(stack), false, false));
+        }
 
-                buf.writeBoolean(false);
-                buf.writeBoolean(false);
-            }
-        }, false), player);
+        RS.INSTANCE.network.sendTo(new MessageGridFluidUpdate(stackWriters, false), player);
     }
 
     @Override
@@ -59,8 +50,6 @@ public class StorageCacheListenerGridPortableFluid implements IStorageCacheListe
 
     @Override
     public void onChangedBulk(@Nonnull List<Pair<FluidStack, Integer>> stacks) {
-        for(Pair<FluidStack, Integer> stack : stacks) {
-            onChanged(stack.getLeft(), stack.getRight());
-        }
+        RS.INSTANCE.network.sendTo(new MessageGridFluidDelta(null, portableGrid.getFluidStorageTracker(), stacks), player);
     }
 }
@@ -20,7 +20,7 @@ public class StorageDiskFactoryFluid implements IStorageDiskFactory<FluidStack>
             FluidStack stack = FluidStack.loadFluidStackFromNBT(list.getCompoundTagAt(i));
 
             if (stack != null) {
-                disk.getRawStacks().put(stack.getFluid(), stack);
+                disk.addRawStack(stack);
             }
         }
 
@@ -21,7 +21,7 @@ public class StorageDiskFactoryItem implements IStorageDiskFactory<ItemStack> {
             ItemStack stack = StackUtils.deserializeStackFromNbt(list.getCompoundTagAt(i));
 
             if (!stack.isEmpty()) {
-                disk.getRawStacks().put(stack.getItem(), stack);
+                disk.addRawStack(stack);
             }
         }
 
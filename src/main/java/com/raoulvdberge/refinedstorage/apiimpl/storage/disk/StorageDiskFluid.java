@@ -28,6 +28,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
     private World world;
     private int capacity;
     private Multimap<Fluid, FluidStack> stacks = ArrayListMultimap.create();
+    private int stored;
 
     @Nullable
     private IStorageDiskListener listener;
@@ -78,6 +79,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
 
                     if (action == Action.PERFORM) {
                         otherStack.amount += remainingSpace;
+                        stored += remainingSpace;
 
                         onChanged();
                     }
@@ -86,6 +88,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
                 } else {
                     if (action == Action.PERFORM) {
                         otherStack.amount += size;
+                        stored += size;
 
                         onChanged();
                     }
@@ -104,6 +107,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
 
             if (action == Action.PERFORM) {
                 stacks.put(stack.getFluid(), StackUtils.copy(stack, remainingSpace));
+                stored += remainingSpace;
 
                 onChanged();
             }
@@ -112,6 +116,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
         } else {
             if (action == Action.PERFORM) {
                 stacks.put(stack.getFluid(), StackUtils.copy(stack, size));
+                stored += size;
 
                 onChanged();
             }
@@ -136,6 +141,8 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
                         otherStack.amount -= size;
                     }
 
+                    stored -= size;
+
                     onChanged();
                 }
 
@@ -148,7 +155,7 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
 
     @Override
     public int getStored() {
-        return stacks.values().stream().mapToInt(s -> s.amount).sum();
+        return stored;
     }
 
     @Override
@@ -186,8 +193,9 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
         return StorageDiskFactoryFluid.ID;
     }
 
-    Multimap<Fluid, FluidStack> getRawStacks() {
-        return stacks;
+    void addRawStack(FluidStack stack) {
+        stacks.put(stack.getFluid(), stack);
+        stored += stack.amount;
     }
 
     private void onChanged() {
@@ -195,6 +203,6 @@ public class StorageDiskFluid implements IStorageDisk<FluidStack> {
             listener.onChanged();
         }
 
-        API.instance().getStorageDiskManager(world).markForSaving();
+        API.instance().getStorageDiskManager(world).markForSaving(this);
     }
 }
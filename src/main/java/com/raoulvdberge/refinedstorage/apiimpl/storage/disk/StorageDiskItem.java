@@ -29,6 +29,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
     private World world;
     private int capacity;
     private Multimap<Item, ItemStack> stacks = ArrayListMultimap.create();
+    private int stored;
 
     @Nullable
     private IStorageDiskListener listener;
@@ -84,6 +85,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
 
                     if (action == Action.PERFORM) {
                         otherStack.grow(remainingSpace);
+                        stored += remainingSpace;
 
                         onChanged();
                     }
@@ -92,6 +94,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
                 } else {
                     if (action == Action.PERFORM) {
                         otherStack.grow(size);
+                        stored += size;
 
                         onChanged();
                     }
@@ -110,6 +113,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
 
             if (action == Action.PERFORM) {
                 stacks.put(stack.getItem(), ItemHandlerHelper.copyStackWithSize(stack, remainingSpace));
+                stored += remainingSpace;
 
                 onChanged();
             }
@@ -118,6 +122,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
         } else {
             if (action == Action.PERFORM) {
                 stacks.put(stack.getItem(), ItemHandlerHelper.copyStackWithSize(stack, size));
+                stored += size;
 
                 onChanged();
             }
@@ -142,6 +147,8 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
                         otherStack.shrink(size);
                     }
 
+                    stored -= size;
+
                     onChanged();
                 }
 
@@ -154,7 +161,7 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
 
     @Override
     public int getStored() {
-        return stacks.values().stream().mapToInt(ItemStack::getCount).sum();
+        return stored;
     }
 
     @Override
@@ -187,8 +194,9 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
         return remainder == null ? size : (size - remainder.getCount());
     }
 
-    Multimap<Item, ItemStack> getRawStacks() {
-        return stacks;
+    void addRawStack(ItemStack stack) {
+        stacks.put(stack.getItem(), stack);
+        stored += stack.getCount();
     }
 
     private void onChanged() {
@@ -196,6 +204,6 @@ public class StorageDiskItem implements IStorageDisk<ItemStack> {
             listener.onChanged();
         }
 
-        API.instance().getStorageDiskManager(world).markForSaving();
+        API.instance().getStorageDiskManager(world).markForSaving(this);
     }
 }
\ No newline at end of file
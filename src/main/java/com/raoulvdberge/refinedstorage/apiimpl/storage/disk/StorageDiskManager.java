@@ -6,18 +6,39 @@ import com.raoulvdberge.refinedstorage.api.storage.disk.IStorageDiskManager;
 import com.raoulvdberge.refinedstorage.api.storage.disk.IStorageDiskProvider;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.world.World;
 import net.minecraft.world.storage.WorldSavedData;
 import net.minecraftforge.common.util.Constants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Stores every disk in its own file in the "refinedstorage_disks" directory in the world data directory.
+ * Only disks that are marked for saving are rewritten when the world saves.
+ * The {@link WorldSavedData} itself only serves as a save hook, and to read disks stored in the old single file format.
+ */
 public class StorageDiskManager extends WorldSavedData implements IStorageDiskManager {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     public static final String NAME = "refinedstorage_disks";
 
     private static final String NBT_DISKS = "Disks";
@@ -25,10 +46,21 @@ public class StorageDiskManager extends WorldSavedData implements IStorageDiskMa
     private static final String NBT_DISK_TYPE = "Type";
     private static final String NBT_DISK_DATA = "Data";
 
-    private boolean canReadDisks;
-    private NBTTagList disksTag;
+    private static final String FILE_EXTENSION = ".dat";
+    private static final String FILE_EXTENSION_TEMP = ".tmp";
+
+    private boolean canReadDisks = true;
+    @Nullable
+    private NBTTagList legacyDisksTag;
+    // The migrated disks that weren't written to their own file yet, the legacy disks are kept in this file until it's empty.
+    private Set<UUID> unmigrated = ConcurrentHashMap.newKeySet();
+
+    @Nullable
+    private File directory;
 
     private ConcurrentHashMap<UUID, IStorageDisk> disks = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<IStorageDisk, UUID> ids = new ConcurrentHashMap<>();
+    private Set<UUID> dirty = ConcurrentHashMap.newKeySet();
 
     public StorageDiskManager(String name) {
         super(name);
@@ -76,6 +108,9 @@ public class StorageDiskManager extends WorldSavedData implements IStorageDiskMa
         }
 
         disks.put(id, disk);
+        ids.put(disk, id);
+
+        markForSaving(id);
     }
 
     @Override
@@ -84,19 +119,42 @@ public class StorageDiskManager extends WorldSavedData implements IStorageDiskMa
             throw new IllegalArgumentException("Id cannot be null");
         }
 
-        disks.remove(id);
+        IStorageDisk disk = disks.remove(id);
+
+        if (disk != null) {
+            ids.remove(disk);
+        }
+
+        markForSaving(id);
     }
 
     @Override
     public void markForSaving() {
+        dirty.addAll(disks.keySet());
+
+        markDirty();
+    }
+
+    @Override
+    public void markForSaving(IStorageDisk disk) {
+        UUID id = ids.get(disk);
+
+        // Disks that aren't added yet get marked when they are.
+        if (id != null) {
+            markForSaving(id);
+        }
+    }
+
+    private void markForSaving(UUID id) {
+        dirty.add(id);
+
         markDirty();
     }
 
     @Override
     public void readFromNBT(NBTTagCompound tag) {
         if (tag.hasKey(NBT_DISKS)) {
-            this.disksTag = tag.getTagList(NBT_DISKS, Constants.NBT.TAG_COMPOUND);
-            this.canReadDisks = true;
+            this.legacyDisksTag = tag.getTagList(NBT_DISKS, Constants.NBT.TAG_COMPOUND);
         }
     }
 
@@ -104,37 +162,152 @@ public class StorageDiskManager extends WorldSavedData implements IStorageDiskMa
         if (this.canReadDisks) {
             this.canReadDisks = false;
 
-            for (int i = 0; i < disksTag.tagCount(); ++i) {
-                NBTTagCompound diskTag = disksTag.getCompoundTagAt(i);
+            this.directory = new File(world.getSaveHandler().getWorldDirectory(), "data" + File.separator + NAME);
+
+            if (legacyDisksTag != null) {
+                for (int i = 0; i < legacyDisksTag.tagCount(); ++i) {
+                    NBTTagCompound diskTag = legacyDisksTag.getCompoundTagAt(i);
 
-                UUID id = diskTag.getUniqueId(NBT_DISK_ID);
-                NBTTagCompound data = diskTag.getCompoundTag(NBT_DISK_DATA);
-                String type = diskTag.getString(NBT_DISK_TYPE);
+                    readDisk(world, diskTag);
 
-                IStorageDiskFactory factory = API.instance().getStorageDiskRegistry().get(type);
-                if (factory != null) {
-                    disks.put(id, factory.createFromNbt(world, data));
+                    unmigrated.add(diskTag.getUniqueId(NBT_DISK_ID));
+                }
+
+                LOGGER.info("Migrating {} storage disks to the per-disk format", legacyDisksTag.tagCount());
+
+                // Write every disk to its own file, this file is written without the legacy disks once that succeeded.
+                markForSaving();
+            }
+
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+
+            if (files != null) {
+                for (File file : files) {
+                    try (InputStream is = new FileInputStream(file)) {
+                        readDisk(world, CompressedStreamTools.readCompressed(is));
+                    } catch (IOException e) {
+                        LOGGER.error("Could not read storage disk from " + file, e);
+                    }
                 }
             }
         }
     }
 
+    private void readDisk(World world, NBTTagCompound diskTag) {
+        UUID id = diskTag.getUniqueId(NBT_DISK_ID);
+        NBTTagCompound data = diskTag.getCompoundTag(NBT_DISK_DATA);
+        String type = diskTag.getString(NBT_DISK_TYPE);
+
+        IStorageDiskFactory factory = API.instance().getStorageDiskRegistry().get(type);
+        if (factory != null) {
+            IStorageDisk disk = factory.createFromNbt(world, data);
+
+            IStorageDisk previous = disks.put(id, disk);
+            if (previous != null) {
+                ids.remove(previous);
+            }
+
+            ids.put(disk, id);
+        }
+    }
+
     @Override
     public NBTTagCompound writeToNBT(NBTTagCompound tag) {
-        NBTTagList disks = new NBTTagList();
+        if (directory == null) {
+            // The disks weren't read yet, so the legacy disks aren't migrated yet either.
+            if (legacyDisksTag != null) {
+                tag.setTag(NBT_DISKS, legacyDisksTag);
+            }
+
+            return tag;
+        }
+
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.error("Could not create storage disk directory " + directory);
+
+            writeLegacyDisks(tag);
+
+            return tag;
+        }
+
+        List<UUID> toSave = new ArrayList<>(dirty);
+
+        dirty.removeAll(toSave);
+
+        for (UUID id : toSave) {
+            File file = new File(directory, id + FILE_EXTENSION);
+
+            IStorageDisk disk = disks.get(id);
 
-        for (Map.Entry<UUID, IStorageDisk> entry : this.disks.entrySet()) {
-            NBTTagCompound diskTag = new NBTTagCompound();
+            try {
+                if (disk == null) {
+                    Files.deleteIfExists(file.toPath());
+                } else {
+                    writeDisk(file, id, disk);
+                }
 
-            diskTag.setUniqueId(NBT_DISK_ID, entry.getKey());
-            diskTag.setTag(NBT_DISK_DATA, entry.getValue().writeToNbt());
-            diskTag.setString(NBT_DISK_TYPE, entry.getValue().getId());
+                unmigrated.remove(id);
+            } catch (IOException e) {
+                LOGGER.error("Could not save storage disk " + id, e);
 
-            disks.appendTag(diskTag);
+                // Try again on the next save.
+                dirty.add(id);
+            }
         }
 
-        tag.setTag(NBT_DISKS, disks);
+        writeLegacyDisks(tag);
 
         return tag;
     }
+
+    private void writeLegacyDisks(NBTTagCompound tag) {
+        if (legacyDisksTag == null) {
+            return;
+        }
+
+        if (unmigrated.isEmpty()) {
+            LOGGER.info("Migrated all storage disks to the per-disk format");
+
+            legacyDisksTag = null;
+
+            return;
+        }
+
+        // Write the current state of the disks that aren't in their own file yet, so no changes are lost if the server stops before they are.
+        NBTTagList remaining = new NBTTagList();
+
+        for (UUID id : unmigrated) {
+            IStorageDisk disk = disks.get(id);
+
+            if (disk != null) {
+                remaining.appendTag(writeDisk(id, disk));
+            }
+        }
+
+        legacyDisksTag = remaining;
+
+        tag.setTag(NBT_DISKS, legacyDisksTag);
+    }
+
+    private NBTTagCompound writeDisk(UUID id, IStorageDisk disk) {
+        NBTTagCompound diskTag = new NBTTagCompound();
+
+        diskTag.setUniqueId(NBT_DISK_ID, id);
+        diskTag.setTag(NBT_DISK_DATA, disk.writeToNbt());
+        diskTag.setString(NBT_DISK_TYPE, disk.getId());
+
+        return diskTag;
+    }
+
+    private void writeDisk(File file, UUID id, IStorageDisk disk) throws IOException {
+        NBTTagCompound diskTag = writeDisk(id, disk);
+
+        File tempFile = new File(directory, id + FILE_EXTENSION + FILE_EXTENSION_TEMP);
+
+        try (OutputStream os = new FileOutputStream(tempFile)) {
+            CompressedStreamTools.writeCompressed(diskTag, os);
+        }
+
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
 }
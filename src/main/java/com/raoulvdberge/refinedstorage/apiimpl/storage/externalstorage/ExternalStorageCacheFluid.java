@@ -13,9 +13,16 @@ import java.util.List;
 
 public class ExternalStorageCacheFluid {
     private List<FluidStack> cache;
+    private int stored;
 
     public void update(INetwork network, @Nullable IFluidHandler handler) {
         if (handler == null) {
+            // The handler is gone, like when the neighbour is removed or unloaded, so it doesn't store anything anymore.
+            // Its stacks are added again when it comes back.
+            if (cache != null) {
+                shrink(network, 0);
+            }
+
             return;
         }
 
@@ -23,7 +30,13 @@ public class ExternalStorageCacheFluid {
             cache = new ArrayList<>();
 
             for (IFluidTankProperties properties : handler.getTankProperties()) {
-                cache.add(properties.getContents() == null ? null : properties.getContents().copy());
+                FluidStack stack = properties.getContents() == null ? null : properties.getContents().copy();
+
+                cache.add(stack);
+
+                if (stack != null) {
+                    stored += stack.amount;
+                }
             }
 
             return;
@@ -37,6 +50,7 @@ public class ExternalStorageCacheFluid {
                     network.getFluidStorageCache().add(actual, actual.amount, false, true);
 
                     cache.add(actual.copy());
+                    stored += actual.amount;
                 }
 
                 continue;
@@ -52,38 +66,55 @@ public class ExternalStorageCacheFluid {
                 network.getFluidStorageCache().remove(cached, cached.amount, true);
 
                 cache.set(i, null);
+                stored -= cached.amount;
             } else if (actual != null && cached == null) { // ADDED
                 network.getFluidStorageCache().add(actual, actual.amount, false, true);
 
                 cache.set(i, actual.copy());
+                stored += actual.amount;
             } else if (!API.instance().getComparer().isEqual(actual, cached, IComparer.COMPARE_NBT)) { // CHANGED
                 network.getFluidStorageCache().remove(cached, cached.amount, true);
                 network.getFluidStorageCache().add(actual, actual.amount, false, true);
 
                 cache.set(i, actual.copy());
+                stored += actual.amount - cached.amount;
             } else if (actual.amount > cached.amount) { // COUNT_CHANGED
                 network.getFluidStorageCache().add(actual, actual.amount - cached.amount, false, true);
 
+                stored += actual.amount - cached.amount;
                 cached.amount = actual.amount;
             } else if (actual.amount < cached.amount) { // COUNT_CHANGED
                 network.getFluidStorageCache().remove(actual, cached.amount - actual.amount, true);
 
+                stored -= cached.amount - actual.amount;
                 cached.amount = actual.amount;
             }
         }
 
         if (cache.size() > handler.getTankProperties().length) { // SHRUNK
-            for (int i = cache.size() - 1; i >= handler.getTankProperties().length; --i) { // Reverse order for the remove call.
-                FluidStack cached = cache.get(i);
+            shrink(network, handler.getTankProperties().length);
+        }
+    }
 
-                if (cached != null) {
-                    network.getFluidStorageCache().remove(cached, cached.amount, true);
-                }
+    private void shrink(INetwork network, int tanks) {
+        for (int i = cache.size() - 1; i >= tanks; --i) { // Reverse order for the remove call.
+            FluidStack cached = cache.get(i);
+
+            if (cached != null) {
+                network.getFluidStorageCache().remove(cached, cached.amount, true);
 
-                cache.remove(i);
+                stored -= cached.amount;
             }
+
+            cache.remove(i);
         }
+    }
+
+    public boolean isInitialized() {
+        return cache != null;
+    }
 
-        network.getFluidStorageCache().flush();
+    public int getStored() {
+        return stored;
     }
 }
@@ -11,9 +11,16 @@ import java.util.List;
 
 public class ExternalStorageCacheItem {
     private List<ItemStack> cache;
+    private int stored;
 
     public void update(INetwork network, @Nullable IItemHandler handler) {
         if (handler == null) {
+            // The handler is gone, like when the neighbour is removed or unloaded, so it doesn't store anything anymore.
+            // Its stacks are added again when it comes back.
+            if (cache != null) {
+                shrink(network, 0);
+            }
+
             return;
         }
 
@@ -21,7 +28,10 @@ public class ExternalStorageCacheItem {
             cache = new ArrayList<>();
 
             for (int i = 0; i < handler.getSlots(); ++i) {
-                cache.add(handler.getStackInSlot(i).copy());
+                ItemStack stack = handler.getStackInSlot(i).copy();
+
+                cache.add(stack);
+                stored += stack.getCount();
             }
 
             return;
@@ -35,6 +45,7 @@ public class ExternalStorageCacheItem {
                     network.getItemStorageCache().add(actual, actual.getCount(), false, true);
 
                     cache.add(actual.copy());
+                    stored += actual.getCount();
                 }
 
                 continue;
@@ -46,18 +57,23 @@ public class ExternalStorageCacheItem {
                 network.getItemStorageCache().remove(cached, cached.getCount(), true);
 
                 cache.set(i, ItemStack.EMPTY);
+                stored -= cached.getCount();
             } else if (cached.isEmpty() && !actual.isEmpty()) { // ADDED
                 network.getItemStorageCache().add(actual, actual.getCount(), false, true);
 
                 cache.set(i, actual.copy());
+                stored += actual.getCount();
             } else if (!API.instance().getComparer().isEqualNoQuantity(cached, actual)) { // CHANGED
                 network.getItemStorageCache().remove(cached, cached.getCount(), true);
                 network.getItemStorageCache().add(actual, actual.getCount(), false, true);
 
                 cache.set(i, actual.copy());
+                stored += actual.getCount() - cached.getCount();
             } else if (cached.getCount() != actual.getCount()) { // COUNT_CHANGED
                 int delta = actual.getCount() - cached.getCount();
 
+                stored += delta;
+
                 if (delta > 0) {
                     network.getItemStorageCache().add(actual, delta, false, true);
 
@@ -71,17 +87,29 @@ public class ExternalStorageCacheItem {
         }
 
         if (cache.size() > handler.getSlots()) { // SHRUNK
-            for (int i = cache.size() - 1; i >= handler.getSlots(); --i) { // Reverse order for the remove call.
-                ItemStack cached = cache.get(i);
+            shrink(network, handler.getSlots());
+        }
+    }
 
-                if (!cached.isEmpty()) {
-                    network.getItemStorageCache().remove(cached, cached.getCount(), true);
-                }
+    private void shrink(INetwork network, int slots) {
+        for (int i = cache.size() - 1; i >= slots; --i) { // Reverse order for the remove call.
+            ItemStack cached = cache.get(i);
+
+            if (!cached.isEmpty()) {
+                network.getItemStorageCache().remove(cached, cached.getCount(), true);
 
-                cache.remove(i);
+                stored -= cached.getCount();
             }
+
+            cache.remove(i);
         }
+    }
+
+    public boolean isInitialized() {
+        return cache != null;
+    }
 
-        network.getItemStorageCache().flush();
+    public int getStored() {
+        return stored;
     }
 }
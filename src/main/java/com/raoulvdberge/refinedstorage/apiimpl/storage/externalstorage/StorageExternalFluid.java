@@ -118,6 +118,15 @@ public class StorageExternalFluid implements IStorageExternal<FluidStack> {
 
     @Override
     public int getStored() {
+        if (handlerSupplier.get() == null) {
+            return 0;
+        }
+
+        // The tank cache is kept in sync every tick, unless it isn't updated at all because we're insert-only.
+        if (cache.isInitialized() && getAccessType() != AccessType.INSERT) {
+            return cache.getStored();
+        }
+
         IFluidTankProperties[] props = getProperties();
 
         if (props != null) {
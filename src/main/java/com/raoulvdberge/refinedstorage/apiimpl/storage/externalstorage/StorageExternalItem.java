@@ -136,6 +136,11 @@ public class StorageExternalItem implements IStorageExternal<ItemStack> {
             return 0;
         }
 
+        // The slot cache is kept in sync every tick, unless it isn't updated at all because we're insert-only.
+        if (cache.isInitialized() && getAccessType() != AccessType.INSERT) {
+            return cache.getStored();
+        }
+
         int size = 0;
 
         for (int i = 0; i < handler.getSlots(); ++i) {
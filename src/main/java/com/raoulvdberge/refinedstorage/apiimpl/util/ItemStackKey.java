@@ -0,0 +1,88 @@
+package com.raoulvdberge.refinedstorage.apiimpl.util;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * An immutable identity of an item stack without its quantity, with a precomputed hash code.
+ * Two keys are equal if the item, damage and NBT tag are equal, where an empty tag is treated as no tag,
+ * mirroring {@link com.raoulvdberge.refinedstorage.api.util.IComparer#isEqualNoQuantity(ItemStack, ItemStack)}.
+ * The key holds a reference to the tag of the stack it was created from, so that stack must not be mutated afterwards.
+ */
+public final class ItemStackKey {
+    private final Item item;
+    private final int damage;
+    @Nullable
+    private final NBTTagCompound tag;
+    private final int tagHashCode;
+    private final int hashCode;
+
+    public ItemStackKey(@Nonnull ItemStack stack) {
+        this(stack.getItem(), stack.getItemDamage(), getCanonicalTag(stack));
+    }
+
+    private ItemStackKey(Item item, int damage, @Nullable NBTTagCompound tag) {
+        this(item, damage, tag, tag == null ? 0 : tag.hashCode());
+    }
+
+    private ItemStackKey(Item item, int damage, @Nullable NBTTagCompound tag, int tagHashCode) {
+        this.item = item;
+        this.damage = damage;
+        this.tag = tag;
+        this.tagHashCode = tagHashCode;
+
+        int result = item.hashCode();
+        result = 31 * result + damage;
+        result = 31 * result + tagHashCode;
+
+        this.hashCode = result;
+    }
+
+    public Item getItem() {
+        return item;
+    }
+
+    public int getDamage() {
+        return damage;
+    }
+
+    /**
+     * @param damage the damage
+     * @return a key with the same item and tag, but a different damage
+     */
+    public ItemStackKey withDamage(int damage) {
+        return damage == this.damage ? this : new ItemStackKey(item, damage, tag, tagHashCode);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof ItemStackKey)) {
+            return false;
+        }
+
+        ItemStackKey other = (ItemStackKey) o;
+
+        return hashCode == other.hashCode && item == other.item && damage == other.damage && Objects.equals(tag, other.tag);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Nullable
+    private static NBTTagCompound getCanonicalTag(ItemStack stack) {
+        NBTTagCompound tag = stack.getTagCompound();
+
+        return tag == null || tag.isEmpty() ? null : tag;
+    }
+}
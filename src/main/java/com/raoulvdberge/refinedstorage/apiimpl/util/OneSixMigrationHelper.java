@@ -62,7 +62,6 @@ public class OneSixMigrationHelper implements IOneSixMigrationHelper {
         }
 
         API.instance().getStorageDiskManager(world).set(id, newDisk);
-        API.instance().getStorageDiskManager(world).markForSaving();
 
         return id;
     }
@@ -83,7 +82,6 @@ public class OneSixMigrationHelper implements IOneSixMigrationHelper {
         }
 
         API.instance().getStorageDiskManager(world).set(id, newDisk);
-        API.instance().getStorageDiskManager(world).markForSaving();
 
         return id;
     }
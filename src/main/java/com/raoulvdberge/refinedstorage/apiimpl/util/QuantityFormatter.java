@@ -63,8 +63,13 @@ public class QuantityFormatter implements IQuantityFormatter {
 
     @Override
     public String formatInBucketFormWithOnlyTrailingDigitsIfZero(int qty) {
+        return formatInBucketFormWithOnlyTrailingDigitsIfZero((long) qty);
+    }
+
+    @Override
+    public String formatInBucketFormWithOnlyTrailingDigitsIfZero(long qty) {
         float amountRaw = ((float) qty / (float) Fluid.BUCKET_VOLUME);
-        int amount = (int) amountRaw;
+        long amount = (long) amountRaw;
 
         if (amount >= 1) {
             return API.instance().getQuantityFormatter().formatWithUnits(amount);
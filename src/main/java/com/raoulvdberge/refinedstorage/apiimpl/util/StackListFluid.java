@@ -3,6 +3,7 @@ package com.raoulvdberge.refinedstorage.apiimpl.util;
 import com.google.common.collect.ArrayListMultimap;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 
@@ -13,27 +14,34 @@ import java.util.Collection;
 public class StackListFluid implements IStackList<FluidStack> {
     private ArrayListMultimap<Fluid, FluidStack> stacks = ArrayListMultimap.create();
 
+    // The full amounts of the stacks in this list, the amount of the stacks themselves is clamped to Integer.MAX_VALUE.
+    // FluidStack overrides equals, so this has to be keyed by reference.
+    private Reference2LongOpenHashMap<FluidStack> counts = new Reference2LongOpenHashMap<>();
+
     @Override
-    public void add(@Nonnull FluidStack stack, int size) {
+    public void add(@Nonnull FluidStack stack, long size) {
         if (size < 0) {
             throw new IllegalArgumentException("Cannot accept empty stack");
         }
 
         for (FluidStack otherStack : stacks.get(stack.getFluid())) {
             if (stack.isFluidEqual(otherStack)) {
-                if ((long) otherStack.amount + (long) size > Integer.MAX_VALUE) {
-                    otherStack.amount = Integer.MAX_VALUE;
-                } else {
-                    otherStack.amount += size;
-                }
+                long count = counts.getLong(otherStack);
+
+                setCount(otherStack, count + size < count ? Long.MAX_VALUE : count + size);
 
                 return;
             }
         }
 
         FluidStack newStack = stack.copy();
-        newStack.amount = size;
         stacks.put(stack.getFluid(), newStack);
+        setCount(newStack, size);
+    }
+
+    @Override
+    public void add(@Nonnull FluidStack stack, int size) {
+        add(stack, (long) size);
     }
 
     @Override
@@ -42,15 +50,18 @@ public class StackListFluid implements IStackList<FluidStack> {
     }
 
     @Override
-    public boolean remove(@Nonnull FluidStack stack, int size) {
+    public boolean remove(@Nonnull FluidStack stack, long size) {
         for (FluidStack otherStack : stacks.get(stack.getFluid())) {
             if (stack.isFluidEqual(otherStack)) {
-                otherStack.amount -= size;
+                long count = counts.getLong(otherStack) - size;
 
-                boolean success = otherStack.amount >= 0;
+                boolean success = count >= 0;
 
-                if (otherStack.amount <= 0) {
+                if (count <= 0) {
                     stacks.remove(otherStack.getFluid(), otherStack);
+                    counts.removeLong(otherStack);
+                } else {
+                    setCount(otherStack, count);
                 }
 
                 return success;
@@ -60,6 +71,11 @@ public class StackListFluid implements IStackList<FluidStack> {
         return false;
     }
 
+    @Override
+    public boolean remove(@Nonnull FluidStack stack, int size) {
+        return remove(stack, (long) size);
+    }
+
     @Override
     public boolean remove(@Nonnull FluidStack stack) {
         return remove(stack, stack.amount);
@@ -77,6 +93,13 @@ public class StackListFluid implements IStackList<FluidStack> {
         return null;
     }
 
+    @Override
+    public long getCount(@Nonnull FluidStack stack, int flags) {
+        FluidStack otherStack = get(stack, flags);
+
+        return otherStack == null ? 0 : counts.getLong(otherStack);
+    }
+
     @Override
     @Nullable
     public FluidStack get(int hash) {
@@ -92,6 +115,7 @@ public class StackListFluid implements IStackList<FluidStack> {
     @Override
     public void clear() {
         stacks.clear();
+        counts.clear();
     }
 
     @Override
@@ -111,9 +135,18 @@ public class StackListFluid implements IStackList<FluidStack> {
         StackListFluid list = new StackListFluid();
 
         for (FluidStack stack : stacks.values()) {
-            list.stacks.put(stack.getFluid(), stack.copy());
+            FluidStack copy = stack.copy();
+
+            list.stacks.put(copy.getFluid(), copy);
+            list.counts.put(copy, counts.getLong(stack));
         }
 
         return list;
     }
+
+    private void setCount(FluidStack stack, long count) {
+        counts.put(stack, count);
+
+        stack.amount = (int) Math.min(count, Integer.MAX_VALUE);
+    }
 }
@@ -1,38 +1,65 @@
 package com.raoulvdberge.refinedstorage.apiimpl.util;
 
-import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.raoulvdberge.refinedstorage.api.util.IComparer;
 import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.oredict.OreDictionary;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 public class StackListItem implements IStackList<ItemStack> {
-    private ArrayListMultimap<Item, ItemStack> stacks = ArrayListMultimap.create();
+    private static final int COMPARE_EXACT = IComparer.COMPARE_DAMAGE | IComparer.COMPARE_NBT;
+
+    private Map<ItemStackKey, ItemStack> stacks = new HashMap<>();
+
+    // Secondary indices, only used for lookups that can't go through the key (fuzzy flags, wildcard damage and hashes).
+    // Both are set based, and since ItemStack doesn't override equals, removing a stack from them is O(1).
+    private SetMultimap<Item, ItemStack> stacksByItem = LinkedHashMultimap.create();
+    private SetMultimap<Integer, ItemStack> stacksByHash = HashMultimap.create();
+
+    // The full counts of the stacks in this list, the count of the stacks themselves is clamped to Integer.MAX_VALUE.
+    private Reference2LongOpenHashMap<ItemStack> counts = new Reference2LongOpenHashMap<>();
 
     @Override
-    public void add(@Nonnull ItemStack stack, int size) {
+    public void add(@Nonnull ItemStack stack, long size) {
         if (stack.isEmpty() || size <= 0) {
             throw new IllegalArgumentException("Cannot accept empty stack");
         }
 
-        for (ItemStack otherStack : stacks.get(stack.getItem())) {
-            if (API.instance().getComparer().isEqualNoQuantity(otherStack, stack)) {
-                if ((long) otherStack.getCount() + (long) size > Integer.MAX_VALUE) {
-                    otherStack.setCount(Integer.MAX_VALUE);
-                } else {
-                    otherStack.grow(size);
-                }
+        ItemStackKey key = new ItemStackKey(stack);
 
-                return;
-            }
+        ItemStack otherStack = getExact(stack, key);
+
+        if (otherStack != null) {
+            long count = counts.getLong(otherStack);
+
+            setCount(otherStack, count + size < count ? Long.MAX_VALUE : count + size);
+
+            return;
         }
 
-        stacks.put(stack.getItem(), ItemHandlerHelper.copyStackWithSize(stack, size));
+        ItemStack newStack = ItemHandlerHelper.copyStackWithSize(stack, 1);
+
+        // The key references the tag of the stack it was made from, so build a new one from our own copy.
+        index(new ItemStackKey(newStack), newStack, size);
+    }
+
+    @Override
+    public void add(@Nonnull ItemStack stack, int size) {
+        add(stack, (long) size);
     }
 
     @Override
@@ -41,24 +68,31 @@ public class StackListItem implements IStackList<ItemStack> {
     }
 
     @Override
-    public boolean remove(@Nonnull ItemStack stack, int size) {
-        for (ItemStack otherStack : stacks.get(stack.getItem())) {
-            if (API.instance().getComparer().isEqualNoQuantity(otherStack, stack)) {
-                boolean success = otherStack.getCount() - size >= 0;
-
-                if (otherStack.getCount() - size <= 0) {
-                    stacks.remove(otherStack.getItem(), otherStack);
-                } else {
-                    otherStack.shrink(size);
-                }
+    public boolean remove(@Nonnull ItemStack stack, long size) {
+        ItemStack otherStack = getExact(stack, new ItemStackKey(stack));
+
+        if (otherStack != null) {
+            long count = counts.getLong(otherStack);
+
+            boolean success = count - size >= 0;
 
-                return success;
+            if (count - size <= 0) {
+                unindex(otherStack);
+            } else {
+                setCount(otherStack, count - size);
             }
+
+            return success;
         }
 
         return false;
     }
 
+    @Override
+    public boolean remove(@Nonnull ItemStack stack, int size) {
+        return remove(stack, (long) size);
+    }
+
     @Override
     public boolean remove(@Nonnull ItemStack stack) {
         return remove(stack, stack.getCount());
@@ -67,7 +101,17 @@ public class StackListItem implements IStackList<ItemStack> {
     @Override
     @Nullable
     public ItemStack get(@Nonnull ItemStack stack, int flags) {
-        for (ItemStack otherStack : stacks.get(stack.getItem())) {
+        if ((flags & COMPARE_EXACT) == COMPARE_EXACT) {
+            ItemStack otherStack = getExact(stack, new ItemStackKey(stack));
+
+            if (otherStack != null && ((flags & IComparer.COMPARE_QUANTITY) != IComparer.COMPARE_QUANTITY || otherStack.getCount() == stack.getCount())) {
+                return otherStack;
+            }
+
+            return null;
+        }
+
+        for (ItemStack otherStack : stacksByItem.get(stack.getItem())) {
             if (API.instance().getComparer().isEqual(otherStack, stack, flags)) {
                 return otherStack;
             }
@@ -76,21 +120,27 @@ public class StackListItem implements IStackList<ItemStack> {
         return null;
     }
 
+    @Override
+    public long getCount(@Nonnull ItemStack stack, int flags) {
+        ItemStack otherStack = get(stack, flags);
+
+        return otherStack == null ? 0 : counts.getLong(otherStack);
+    }
+
     @Override
     @Nullable
     public ItemStack get(int hash) {
-        for (ItemStack stack : this.stacks.values()) {
-            if (API.instance().getItemStackHashCode(stack) == hash) {
-                return stack;
-            }
-        }
+        Set<ItemStack> matches = stacksByHash.get(hash);
 
-        return null;
+        return matches.isEmpty() ? null : matches.iterator().next();
     }
 
     @Override
     public void clear() {
         stacks.clear();
+        stacksByItem.clear();
+        stacksByHash.clear();
+        counts.clear();
     }
 
     @Override
@@ -101,7 +151,7 @@ public class StackListItem implements IStackList<ItemStack> {
     @Nonnull
     @Override
     public Collection<ItemStack> getStacks() {
-        return stacks.values();
+        return Collections.unmodifiableCollection(stacks.values());
     }
 
     @Override
@@ -110,9 +160,54 @@ public class StackListItem implements IStackList<ItemStack> {
         StackListItem list = new StackListItem();
 
         for (ItemStack stack : stacks.values()) {
-            list.stacks.put(stack.getItem(), stack.copy());
+            ItemStack copy = stack.copy();
+
+            list.index(new ItemStackKey(copy), copy, counts.getLong(stack));
         }
 
         return list;
     }
+
+    @Nullable
+    private ItemStack getExact(ItemStack stack, ItemStackKey key) {
+        // A wildcard damage matches any damage, so that can't be answered with a single key lookup.
+        if (key.getDamage() == OreDictionary.WILDCARD_VALUE) {
+            for (ItemStack otherStack : stacksByItem.get(key.getItem())) {
+                if (API.instance().getComparer().isEqualNoQuantity(otherStack, stack)) {
+                    return otherStack;
+                }
+            }
+
+            return null;
+        }
+
+        ItemStack otherStack = stacks.get(key);
+
+        if (otherStack == null) {
+            otherStack = stacks.get(key.withDamage(OreDictionary.WILDCARD_VALUE));
+        }
+
+        return otherStack;
+    }
+
+    private void index(ItemStackKey key, ItemStack stack, long count) {
+        stacks.put(key, stack);
+        stacksByItem.put(stack.getItem(), stack);
+        stacksByHash.put(API.instance().getItemStackHashCode(stack), stack);
+
+        setCount(stack, count);
+    }
+
+    private void unindex(ItemStack stack) {
+        stacks.remove(new ItemStackKey(stack));
+        stacksByItem.remove(stack.getItem(), stack);
+        stacksByHash.remove(API.instance().getItemStackHashCode(stack), stack);
+        counts.removeLong(stack);
+    }
+
+    private void setCount(ItemStack stack, long count) {
+        counts.put(stack, count);
+
+        stack.setCount((int) Math.min(count, Integer.MAX_VALUE));
+    }
 }
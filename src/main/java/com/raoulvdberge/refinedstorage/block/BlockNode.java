@@ -2,10 +2,10 @@ package com.raoulvdberge.refinedstorage.block;
 
 import com.raoulvdberge.refinedstorage.api.network.node.INetworkNode;
 import com.raoulvdberge.refinedstorage.api.network.node.INetworkNodeManager;
-import com.raoulvdberge.refinedstorage.api.util.Action;
 import com.raoulvdberge.refinedstorage.apiimpl.API;
 import com.raoulvdberge.refinedstorage.block.info.IBlockInfo;
 import com.raoulvdberge.refinedstorage.tile.TileNode;
+import net.minecraft.block.Block;
 import net.minecraft.block.properties.PropertyBool;
 import net.minecraft.block.state.BlockStateContainer;
 import net.minecraft.block.state.IBlockState;
@@ -50,10 +50,20 @@ public abstract class BlockNode extends BlockNodeProxy {
         removeTile(world, pos, state);
 
         manager.removeNode(pos);
-        manager.markForSaving();
 
         if (node != null && node.getNetwork() != null) {
-            node.getNetwork().getNodeGraph().invalidate(Action.PERFORM, node.getNetwork().world(), node.getNetwork().getPosition());
+            node.getNetwork().getNodeGraph().invalidateRemoved(node);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void neighborChanged(IBlockState state, World world, BlockPos pos, Block block, BlockPos fromPos) {
+        super.neighborChanged(state, world, pos, block, fromPos);
+
+        // The redstone signal could have changed, which a sleeping node has to notice.
+        if (!world.isRemote) {
+            API.instance().getNetworkNodeManager(world).wakeUp(pos);
         }
     }
 
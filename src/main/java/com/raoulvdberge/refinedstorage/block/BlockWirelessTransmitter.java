@@ -55,6 +55,8 @@ public class BlockWirelessTransmitter extends BlockNode {
     @Override
     @SuppressWarnings("deprecation")
     public void neighborChanged(IBlockState state, World world, BlockPos pos, Block blockIn, BlockPos fromPos) {
+        super.neighborChanged(state, world, pos, blockIn, fromPos);
+
         if (!canPlaceBlockAt(world, pos) && world.getBlockState(pos).getBlock() == this) {
             dropBlockAsItem(world, pos, state, 0);
 
@@ -0,0 +1,33 @@
+package com.raoulvdberge.refinedstorage.command;
+
+import com.raoulvdberge.refinedstorage.api.network.node.INetworkNodeManager;
+import com.raoulvdberge.refinedstorage.apiimpl.API;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentTranslation;
+
+public class CommandNetworkNodes extends CommandBase {
+    @Override
+    public String getName() {
+        return "networknodes";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return "commands.refinedstorage.networknodes.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        INetworkNodeManager manager = API.instance().getNetworkNodeManager(sender.getEntityWorld());
+
+        sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networknodes.success", manager.all().size(), manager.getUpdatedNodes(), manager.getSleepingNodes()));
+    }
+}
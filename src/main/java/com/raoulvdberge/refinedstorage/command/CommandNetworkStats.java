@@ -0,0 +1,101 @@
+package com.raoulvdberge.refinedstorage.command;
+
+import com.raoulvdberge.refinedstorage.RS;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingRequestInfo;
+import com.raoulvdberge.refinedstorage.api.autocrafting.task.ICraftingTask;
+import com.raoulvdberge.refinedstorage.api.network.INetwork;
+import com.raoulvdberge.refinedstorage.apiimpl.autocrafting.CraftingCalculationExecutor;
+import com.raoulvdberge.refinedstorage.apiimpl.autocrafting.CraftingManager;
+import com.raoulvdberge.refinedstorage.apiimpl.storage.StorageCacheFluid;
+import com.raoulvdberge.refinedstorage.apiimpl.storage.StorageCacheItem;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentTranslation;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+
+public class CommandNetworkStats extends CommandBase {
+    @Override
+    public String getName() {
+        return "networkstats";
+    }
+
+    @Override
+    public String getUsage(ICommandSender sender) {
+        return "commands.refinedstorage.networkstats.usage";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 3) {
+            throw new WrongUsageException("commands.refinedstorage.networkstats.usage");
+        }
+
+        BlockPos pos = parseBlockPos(sender, args, 0, false);
+
+        TileEntity tile = sender.getEntityWorld().getTileEntity(pos);
+        if (!(tile instanceof INetwork)) {
+            throw new CommandException("commands.refinedstorage.networkstats.error.noController");
+        }
+
+        INetwork network = (INetwork) tile;
+
+        if (network.getItemStorageCache() instanceof StorageCacheItem) {
+            StorageCacheItem cache = (StorageCacheItem) network.getItemStorageCache();
+
+            sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.items", cache.getPacketsSaved(), cache.getChangesSaved()));
+        }
+
+        if (network.getFluidStorageCache() instanceof StorageCacheFluid) {
+            StorageCacheFluid cache = (StorageCacheFluid) network.getFluidStorageCache();
+
+            sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.fluids", cache.getPacketsSaved(), cache.getChangesSaved()));
+        }
+
+        if (network.getCraftingManager() instanceof CraftingManager) {
+            CraftingManager craftingManager = (CraftingManager) network.getCraftingManager();
+
+            sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.requestCache", craftingManager.getRequestCache().getHits(), craftingManager.getRequestCache().getMisses()));
+            sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.tasks", craftingManager.getUpdatedTasks(), craftingManager.getTasks().size(), formatNs(craftingManager.getLastUpdateTimeNs()), RS.INSTANCE.config.taskUpdateTimeBudgetMs, craftingManager.getDeferredTaskUpdates()));
+
+            for (ICraftingTask task : craftingManager.getTasks()) {
+                ICraftingRequestInfo requested = task.getRequested();
+
+                String name = requested.getItem() != null ? requested.getItem().getDisplayName() : requested.getFluid().getLocalizedName();
+
+                sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.task", task.getQuantity(), name, formatNs(craftingManager.getTaskUpdateTimeNs(task.getId()))));
+            }
+        }
+
+        // The calculations of all networks share the same threads.
+        CraftingCalculationExecutor executor = RS.INSTANCE.craftingCalculationExecutor;
+
+        sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.calculations", executor.getQueueDepth(), executor.getRunning(), executor.getCalculated(), executor.getSuperseded(), executor.getRejected()));
+        sender.sendMessage(new TextComponentTranslation("commands.refinedstorage.networkstats.calculationTimes", executor.getAverageWaitingTimeMs(), executor.getAverageCalculationTimeMs(), executor.getLastCalculationTimeMs()));
+    }
+
+    private static String formatNs(long ns) {
+        return String.format("%.2f", ns / 1000000D);
+    }
+
+    @Override
+    public List<String> getTabCompletions(MinecraftServer server, ICommandSender sender, String[] args, @Nullable BlockPos targetPos) {
+        if (args.length <= 3) {
+            return getTabCompletionCoordinate(args, 0, targetPos);
+        }
+
+        return Collections.emptyList();
+    }
+}
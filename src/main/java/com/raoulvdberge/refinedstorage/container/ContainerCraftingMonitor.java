@@ -13,11 +13,18 @@ import net.minecraft.inventory.Slot;
 import net.minecraft.item.ItemStack;
 
 import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 public class ContainerCraftingMonitor extends ContainerBase implements ICraftingMonitorListener {
     private ICraftingMonitor craftingMonitor;
     private boolean addedListener;
 
+    // Changes are sent once per tick, and only what changed since the last send.
+    private boolean changed;
+    private Map<UUID, MessageCraftingMonitorElements.SentTask> sentTasks = new HashMap<>();
+
     public ContainerCraftingMonitor(ICraftingMonitor craftingMonitor, @Nullable TileCraftingMonitor craftingMonitorTile, EntityPlayer player) {
         super(craftingMonitorTile, player);
 
@@ -37,6 +44,16 @@ public class ContainerCraftingMonitor extends ContainerBase implements ICrafting
             } else if (manager == null && addedListener) {
                 this.addedListener = false;
             }
+
+            if (changed) {
+                this.changed = false;
+
+                MessageCraftingMonitorElements message = new MessageCraftingMonitorElements(craftingMonitor, sentTasks);
+
+                if (!message.isEmpty()) {
+                    RS.INSTANCE.network.sendTo(message, (EntityPlayerMP) getPlayer());
+                }
+            }
         }
     }
 
@@ -88,11 +105,13 @@ public class ContainerCraftingMonitor extends ContainerBase implements ICrafting
 
     @Override
     public void onAttached() {
-        onChanged();
+        // The manager can be another one than before, send everything again.
+        this.sentTasks.clear();
+        this.changed = true;
     }
 
     @Override
     public void onChanged() {
-        RS.INSTANCE.network.sendTo(new MessageCraftingMonitorElements(craftingMonitor), (EntityPlayerMP) getPlayer());
+        this.changed = true;
     }
 }
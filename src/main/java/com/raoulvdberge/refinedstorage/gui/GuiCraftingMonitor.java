@@ -76,6 +76,18 @@ public class GuiCraftingMonitor extends GuiBase {
             this.elements = elements;
         }
 
+        public UUID getId() {
+            return id;
+        }
+
+        public ICraftingRequestInfo getRequested() {
+            return requested;
+        }
+
+        public List<ICraftingMonitorElement> getElements() {
+            return elements;
+        }
+
         @Override
         public List<IFilter> getFilters() {
             return null;
@@ -156,6 +168,10 @@ public class GuiCraftingMonitor extends GuiBase {
         });
     }
 
+    public List<IGridTab> getTasks() {
+        return tasks;
+    }
+
     public void setTasks(List<IGridTab> tasks) {
         this.tasks = tasks;
     }
@@ -43,6 +43,8 @@ import java.util.LinkedList;
 import java.util.List;
 
 public class GuiGrid extends GuiBase implements IResizableDisplay {
+    private static final long SEARCH_WARM_UP_BUDGET_NS = 2_000_000;
+
     private IGridView view;
 
     private TextFieldSearch searchField;
@@ -315,6 +317,11 @@ public class GuiGrid extends GuiBase implements IResizableDisplay {
 
     @Override
     public void drawScreen(int mouseX, int mouseY, float partialTicks) {
+        // Tooltips can only be gotten on this thread, so warm up the search keys a bit every frame.
+        if (!view.getSearchIndex().isWarmedUp()) {
+            view.getSearchIndex().warmUp(SEARCH_WARM_UP_BUDGET_NS);
+        }
+
         super.drawScreen(mouseX, mouseY, partialTicks);
 
         // Drawn in here for bug #1844 (https://github.com/raoulvdberge/refinedstorage/issues/1844)
@@ -329,6 +336,12 @@ public class GuiGrid extends GuiBase implements IResizableDisplay {
         drawString(7, 7, t(grid.getGuiTitle()));
         drawString(7, getYPlayerInventory() - 12, t("container.inventory"));
 
+        if (!view.getSearchIndex().isWarmedUp()) {
+            String indexing = t("gui.refinedstorage:grid.indexing", view.getSearchIndex().getWarmUpProgress());
+
+            drawString(7 + 9 * 18 - fontRenderer.getStringWidth(indexing), getYPlayerInventory() - 12, indexing);
+        }
+
         int x = 8;
         int y = 19;
 
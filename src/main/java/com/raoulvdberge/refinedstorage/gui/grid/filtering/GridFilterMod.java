@@ -2,28 +2,30 @@ package com.raoulvdberge.refinedstorage.gui.grid.filtering;
 
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class GridFilterMod implements Predicate<IGridStack> {
+    @Nullable
+    private GridSearchIndex index;
     private String inputModName;
 
-    public GridFilterMod(String inputModName) {
-        this.inputModName = standardify(inputModName);
+    public GridFilterMod(@Nullable GridSearchIndex index, String inputModName) {
+        this.index = index;
+        this.inputModName = GridSearchIndex.standardify(inputModName);
     }
 
     @Override
     public boolean test(IGridStack stack) {
-        String modId = stack.getModId();
+        String modId = index != null ? index.getModId(stack) : stack.getModId();
 
         if (modId != null) {
             if (modId.contains(inputModName)) {
                 return true;
             }
 
-            String modName = stack.getModName();
+            String modName = index != null ? index.getModName(stack) : GridSearchIndex.computeModName(stack);
             if (modName != null) {
-                modName = standardify(modName);
-
                 if (modName.contains(inputModName)) {
                     return true;
                 }
@@ -32,8 +34,4 @@ public class GridFilterMod implements Predicate<IGridStack> {
 
         return false;
     }
-
-    private String standardify(String input) {
-        return input.toLowerCase().replace(" ", "");
-    }
 }
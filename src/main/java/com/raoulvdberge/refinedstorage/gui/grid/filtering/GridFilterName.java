@@ -2,17 +2,25 @@ package com.raoulvdberge.refinedstorage.gui.grid.filtering;
 
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class GridFilterName implements Predicate<IGridStack> {
+    @Nullable
+    private GridSearchIndex index;
     private String name;
 
-    public GridFilterName(String name) {
+    public GridFilterName(@Nullable GridSearchIndex index, String name) {
+        this.index = index;
         this.name = name.toLowerCase();
     }
 
+    public String getName() {
+        return name;
+    }
+
     @Override
     public boolean test(IGridStack stack) {
-        return stack.getName().toLowerCase().contains(name);
+        return (index != null ? index.getName(stack) : GridSearchIndex.computeName(stack)).contains(name);
     }
 }
@@ -2,18 +2,27 @@ package com.raoulvdberge.refinedstorage.gui.grid.filtering;
 
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
-import java.util.Arrays;
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class GridFilterOreDict implements Predicate<IGridStack> {
+    @Nullable
+    private GridSearchIndex index;
     private String oreName;
 
-    public GridFilterOreDict(String oreName) {
+    public GridFilterOreDict(@Nullable GridSearchIndex index, String oreName) {
+        this.index = index;
         this.oreName = oreName.toLowerCase();
     }
 
     @Override
     public boolean test(IGridStack stack) {
-        return Arrays.stream(stack.getOreIds()).anyMatch(oreName -> oreName.toLowerCase().contains(this.oreName));
+        for (String oreName : index != null ? index.getOreNames(stack) : GridSearchIndex.computeOreNames(stack)) {
+            if (oreName.contains(this.oreName)) {
+                return true;
+            }
+        }
+
+        return false;
     }
 }
\ No newline at end of file
@@ -10,18 +10,23 @@ import java.util.List;
 import java.util.function.Predicate;
 
 public final class GridFilterParser {
+    // Without an index, the filters take the search keys from the stacks every time, for filters that are only used once.
     public static List<Predicate<IGridStack>> getFilters(@Nullable IGrid grid, String query, List<IFilter> filters) {
+        return getFilters(grid, query, filters, null);
+    }
+
+    public static List<Predicate<IGridStack>> getFilters(@Nullable IGrid grid, String query, List<IFilter> filters, @Nullable GridSearchIndex index) {
         List<Predicate<IGridStack>> gridFilters;
 
         String[] orParts = query.split("\\|");
 
         if (orParts.length == 1) {
-            gridFilters = getFilters(query);
+            gridFilters = getFilters(query, index);
         } else {
             List<List<Predicate<IGridStack>>> orPartFilters = new LinkedList<>();
 
             for (String orPart : orParts) {
-                orPartFilters.add(getFilters(orPart));
+                orPartFilters.add(getFilters(orPart, index));
             }
 
             gridFilters = new LinkedList<>();
@@ -43,18 +48,18 @@ public final class GridFilterParser {
         return gridFilters;
     }
 
-    private static List<Predicate<IGridStack>> getFilters(String query) {
+    private static List<Predicate<IGridStack>> getFilters(String query, @Nullable GridSearchIndex index) {
         List<Predicate<IGridStack>> gridFilters = new LinkedList<>();
 
         for (String part : query.toLowerCase().trim().split(" ")) {
             if (part.startsWith("@")) {
-                gridFilters.add(new GridFilterMod(part.substring(1)));
+                gridFilters.add(new GridFilterMod(index, part.substring(1)));
             } else if (part.startsWith("#")) {
-                gridFilters.add(new GridFilterTooltip(part.substring(1)));
+                gridFilters.add(new GridFilterTooltip(index, part.substring(1)));
             } else if (part.startsWith("$")) {
-                gridFilters.add(new GridFilterOreDict(part.substring(1)));
+                gridFilters.add(new GridFilterOreDict(index, part.substring(1)));
             } else {
-                gridFilters.add(new GridFilterName(part));
+                gridFilters.add(new GridFilterName(index, part));
             }
         }
 
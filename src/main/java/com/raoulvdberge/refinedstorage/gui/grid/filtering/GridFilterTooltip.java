@@ -2,25 +2,27 @@ package com.raoulvdberge.refinedstorage.gui.grid.filtering;
 
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
+import javax.annotation.Nullable;
 import java.util.function.Predicate;
 
 public class GridFilterTooltip implements Predicate<IGridStack> {
+    @Nullable
+    private GridSearchIndex index;
     private String tooltip;
 
-    public GridFilterTooltip(String tooltip) {
+    public GridFilterTooltip(@Nullable GridSearchIndex index, String tooltip) {
+        this.index = index;
         this.tooltip = tooltip.toLowerCase();
     }
 
+    public String getTooltip() {
+        return tooltip;
+    }
+
     @Override
     public boolean test(IGridStack stack) {
-        String otherTooltip = stack.getTooltip().trim().toLowerCase();
-
-        if (!otherTooltip.contains("\n")) {
-            return false;
-        }
-
-        otherTooltip = otherTooltip.substring(otherTooltip.indexOf('\n') + 1); // Remove the first line as that states the item name
+        String otherTooltip = index != null ? index.getTooltip(stack) : GridSearchIndex.computeTooltip(stack);
 
-        return otherTooltip.contains(tooltip);
+        return otherTooltip != null && otherTooltip.contains(tooltip);
     }
 }
@@ -0,0 +1,413 @@
+package com.raoulvdberge.refinedstorage.gui.grid.filtering;
+
+import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the lowercased search keys of the stacks in a grid view, so those are only computed once per stack instead of on every keystroke.
+ * Name and tooltip queries of at least 3 characters are narrowed down with a trigram index before the filters test the stacks.
+ * <p>
+ * Tooltips can be slow to get, so the grid warms up the keys of new stacks a few at a time with {@link #warmUp(long)}.
+ * A filter that needs a key that isn't warmed up yet gets it right away, so the search results never depend on the warm up.
+ */
+public class GridSearchIndex {
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private Map<IGridStack, Entry> entries = new HashMap<>();
+
+    // The stacks by ordinal, removed stacks leave a null behind until the index is compacted.
+    private List<IGridStack> stacks = new ArrayList<>();
+    private int removed;
+
+    // The ordinal of the next stack to warm up.
+    private int warmedUp;
+
+    // Created the first time a query needs them, from then on kept up to date as stacks are added.
+    // Every list of ordinals is sorted, since ordinals only go up.
+    @Nullable
+    private Map<String, IntArrayList> nameTrigrams;
+    @Nullable
+    private Map<String, IntArrayList> tooltipTrigrams;
+
+    public void add(IGridStack stack) {
+        if (entries.containsKey(stack)) {
+            return;
+        }
+
+        Entry entry = new Entry(stack, stacks.size());
+
+        entries.put(stack, entry);
+        stacks.add(stack);
+
+        if (nameTrigrams != null) {
+            index(nameTrigrams, entry.ordinal, entry.getName());
+        }
+
+        if (tooltipTrigrams != null) {
+            index(tooltipTrigrams, entry.ordinal, entry.getTooltip());
+        }
+    }
+
+    public void remove(IGridStack stack) {
+        Entry entry = entries.remove(stack);
+
+        if (entry == null) {
+            return;
+        }
+
+        stacks.set(entry.ordinal, null);
+
+        // The trigram lists still contain the ordinals of removed stacks, start over when those make up most of the index.
+        if (++removed > 1024 && removed > stacks.size() / 2) {
+            compact();
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        stacks.clear();
+        removed = 0;
+        warmedUp = 0;
+        nameTrigrams = null;
+        tooltipTrigrams = null;
+    }
+
+    /**
+     * Gets the search keys of the stacks that don't have them yet, in the order the stacks were added.
+     * Must be called on the client thread, as the tooltips of items can't be gotten from another thread.
+     *
+     * @param budgetNs the time in ns this may take, at least one stack is warmed up
+     */
+    public void warmUp(long budgetNs) {
+        long started = System.nanoTime();
+
+        while (warmedUp < stacks.size()) {
+            IGridStack stack = stacks.get(warmedUp++);
+
+            if (stack != null) {
+                entries.get(stack).warmUp();
+            }
+
+            if (System.nanoTime() - started >= budgetNs) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return true if the search keys of all stacks are warmed up
+     */
+    public boolean isWarmedUp() {
+        return warmedUp >= stacks.size();
+    }
+
+    /**
+     * @return the percentage of stacks that are warmed up
+     */
+    public int getWarmUpProgress() {
+        return stacks.isEmpty() ? 100 : (int) ((long) warmedUp * 100 / stacks.size());
+    }
+
+    public String getName(IGridStack stack) {
+        return getEntry(stack).getName();
+    }
+
+    public String getModId(IGridStack stack) {
+        return getEntry(stack).getModId();
+    }
+
+    @Nullable
+    public String getModName(IGridStack stack) {
+        return getEntry(stack).getModName();
+    }
+
+    /**
+     * @param stack the stack
+     * @return the tooltip without the first line (which is the name), or null if the tooltip only has one line
+     */
+    @Nullable
+    public String getTooltip(IGridStack stack) {
+        return getEntry(stack).getTooltip();
+    }
+
+    public String[] getOreNames(IGridStack stack) {
+        return getEntry(stack).getOreNames();
+    }
+
+    /**
+     * Returns the stacks that can pass the given filters, based on the name and tooltip filters that are long enough to look up.
+     * The returned stacks still have to be tested against the filters.
+     *
+     * @param filters the filters
+     * @return the stacks that can pass the filters, or null if the filters can't be looked up and every stack has to be tested
+     */
+    @Nullable
+    public List<IGridStack> getCandidates(List<Predicate<IGridStack>> filters) {
+        IntArrayList ordinals = null;
+
+        for (Predicate<IGridStack> filter : filters) {
+            IntArrayList matches = null;
+
+            if (filter instanceof GridFilterName && ((GridFilterName) filter).getName().length() >= TRIGRAM_LENGTH) {
+                if (nameTrigrams == null) {
+                    nameTrigrams = createTrigrams(Entry::getName);
+                }
+
+                matches = find(nameTrigrams, ((GridFilterName) filter).getName());
+            } else if (filter instanceof GridFilterTooltip && ((GridFilterTooltip) filter).getTooltip().length() >= TRIGRAM_LENGTH) {
+                if (tooltipTrigrams == null) {
+                    tooltipTrigrams = createTrigrams(Entry::getTooltip);
+                }
+
+                matches = find(tooltipTrigrams, ((GridFilterTooltip) filter).getTooltip());
+            }
+
+            if (matches != null) {
+                ordinals = ordinals == null ? matches : intersect(ordinals, matches);
+            }
+        }
+
+        if (ordinals == null) {
+            return null;
+        }
+
+        List<IGridStack> candidates = new ArrayList<>(ordinals.size());
+
+        for (int i = 0; i < ordinals.size(); ++i) {
+            IGridStack stack = stacks.get(ordinals.getInt(i));
+
+            if (stack != null) {
+                candidates.add(stack);
+            }
+        }
+
+        return candidates;
+    }
+
+    private Entry getEntry(IGridStack stack) {
+        Entry entry = entries.get(stack);
+
+        if (entry == null) {
+            add(stack);
+
+            entry = entries.get(stack);
+        }
+
+        return entry;
+    }
+
+    // Gives the remaining stacks new ordinals, but keeps their entries so their search keys don't have to be computed again.
+    private void compact() {
+        List<IGridStack> remaining = new ArrayList<>(entries.size());
+        int remainingWarmedUp = 0;
+
+        for (int i = 0; i < stacks.size(); ++i) {
+            IGridStack stack = stacks.get(i);
+
+            if (stack == null) {
+                continue;
+            }
+
+            if (i < warmedUp) {
+                remainingWarmedUp++;
+            }
+
+            entries.get(stack).ordinal = remaining.size();
+
+            remaining.add(stack);
+        }
+
+        stacks = remaining;
+        removed = 0;
+        warmedUp = remainingWarmedUp;
+
+        // The trigram lists refer to the old ordinals.
+        if (nameTrigrams != null) {
+            nameTrigrams = createTrigrams(Entry::getName);
+        }
+
+        if (tooltipTrigrams != null) {
+            tooltipTrigrams = createTrigrams(Entry::getTooltip);
+        }
+    }
+
+    private Map<String, IntArrayList> createTrigrams(Function<Entry, String> key) {
+        Map<String, IntArrayList> trigrams = new HashMap<>();
+
+        for (IGridStack stack : stacks) {
+            if (stack != null) {
+                Entry entry = entries.get(stack);
+
+                index(trigrams, entry.ordinal, key.apply(entry));
+            }
+        }
+
+        return trigrams;
+    }
+
+    private static void index(Map<String, IntArrayList> trigrams, int ordinal, @Nullable String value) {
+        if (value == null) {
+            return;
+        }
+
+        for (String trigram : getTrigrams(value)) {
+            trigrams.computeIfAbsent(trigram, k -> new IntArrayList()).add(ordinal);
+        }
+    }
+
+    private static IntArrayList find(Map<String, IntArrayList> trigrams, String query) {
+        IntArrayList result = null;
+
+        for (String trigram : getTrigrams(query)) {
+            IntArrayList ordinals = trigrams.get(trigram);
+
+            if (ordinals == null) {
+                return new IntArrayList();
+            }
+
+            result = result == null ? ordinals : intersect(result, ordinals);
+        }
+
+        return result;
+    }
+
+    private static Set<String> getTrigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+
+        for (int i = 0; i + TRIGRAM_LENGTH <= value.length(); ++i) {
+            trigrams.add(value.substring(i, i + TRIGRAM_LENGTH));
+        }
+
+        return trigrams;
+    }
+
+    private static IntArrayList intersect(IntArrayList left, IntArrayList right) {
+        IntArrayList result = new IntArrayList(Math.min(left.size(), right.size()));
+
+        int i = 0;
+        int j = 0;
+
+        while (i < left.size() && j < right.size()) {
+            int l = left.getInt(i);
+            int r = right.getInt(j);
+
+            if (l == r) {
+                result.add(l);
+
+                i++;
+                j++;
+            } else if (l < r) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return result;
+    }
+
+    static String standardify(String input) {
+        return input.toLowerCase().replace(" ", "");
+    }
+
+    // Also used by filters without an index, which are only used once.
+    static String computeName(IGridStack stack) {
+        return stack.getName().toLowerCase();
+    }
+
+    @Nullable
+    static String computeModName(IGridStack stack) {
+        String modName = stack.getModName();
+
+        return modName == null ? null : standardify(modName);
+    }
+
+    @Nullable
+    static String computeTooltip(IGridStack stack) {
+        String tooltip = stack.getTooltip().trim().toLowerCase();
+
+        // Remove the first line as that states the item name
+        return tooltip.contains("\n") ? tooltip.substring(tooltip.indexOf('\n') + 1) : null;
+    }
+
+    static String[] computeOreNames(IGridStack stack) {
+        return Arrays.stream(stack.getOreIds()).map(String::toLowerCase).toArray(String[]::new);
+    }
+
+    private static class Entry {
+        private final IGridStack stack;
+        private int ordinal;
+
+        private String name;
+        private String modId;
+        private boolean modNameComputed;
+        private String modName;
+        private boolean tooltipComputed;
+        private String tooltip;
+        private String[] oreNames;
+
+        Entry(IGridStack stack, int ordinal) {
+            this.stack = stack;
+            this.ordinal = ordinal;
+        }
+
+        void warmUp() {
+            getName();
+            getModId();
+            getModName();
+            getTooltip();
+            getOreNames();
+        }
+
+        String getName() {
+            if (name == null) {
+                name = computeName(stack);
+            }
+
+            return name;
+        }
+
+        String getModId() {
+            if (modId == null) {
+                modId = stack.getModId();
+            }
+
+            return modId;
+        }
+
+        @Nullable
+        String getModName() {
+            if (!modNameComputed) {
+                modNameComputed = true;
+
+                modName = computeModName(stack);
+            }
+
+            return modName;
+        }
+
+        @Nullable
+        String getTooltip() {
+            if (!tooltipComputed) {
+                tooltipComputed = true;
+
+                tooltip = computeTooltip(stack);
+            }
+
+            return tooltip;
+        }
+
+        String[] getOreNames() {
+            if (oreNames == null) {
+                oreNames = computeOreNames(stack);
+            }
+
+            return oreNames;
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package com.raoulvdberge.refinedstorage.gui.grid.sorting;
 
 import com.raoulvdberge.refinedstorage.api.network.grid.IGrid;
+import com.raoulvdberge.refinedstorage.gui.grid.stack.GridStackItem;
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
-import net.minecraft.item.Item;
-import net.minecraft.item.ItemStack;
 
 public class GridSorterID implements IGridSorter {
     @Override
@@ -16,9 +15,9 @@ public class GridSorterID implements IGridSorter {
         int x = left.getHash();
         int y = right.getHash();
 
-        if (left.getIngredient() instanceof ItemStack && right.getIngredient() instanceof ItemStack) {
-            x = Item.getIdFromItem(((ItemStack) left.getIngredient()).getItem());
-            y = Item.getIdFromItem(((ItemStack) right.getIngredient()).getItem());
+        if (left instanceof GridStackItem && right instanceof GridStackItem) {
+            x = ((GridStackItem) left).getItemId();
+            y = ((GridStackItem) right).getItemId();
         }
 
         if (x != y) {
@@ -12,16 +12,19 @@ import javax.annotation.Nullable;
 public class GridStackFluid implements IGridStack {
     private int hash;
     private FluidStack stack;
+    private long quantity;
     @Nullable
     private IStorageTracker.IStorageTrackerEntry entry;
     private boolean craftable;
     private boolean displayCraftText;
+    private String cachedName;
     private String modId;
     private String modName;
 
     public GridStackFluid(int hash, FluidStack stack, @Nullable IStorageTracker.IStorageTrackerEntry entry, boolean craftable, boolean displayCraftText) {
         this.hash = hash;
         this.stack = stack;
+        this.quantity = stack.amount;
         this.entry = entry;
         this.craftable = craftable;
         this.displayCraftText = displayCraftText;
@@ -53,7 +56,11 @@ public class GridStackFluid implements IGridStack {
 
     @Override
     public String getName() {
-        return stack.getFluid().getLocalizedName(stack);
+        if (cachedName == null) {
+            cachedName = stack.getFluid().getLocalizedName(stack);
+        }
+
+        return cachedName;
     }
 
     @Override
@@ -89,12 +96,17 @@ public class GridStackFluid implements IGridStack {
 
     @Override
     public String getTooltip() {
-        return stack.getFluid().getLocalizedName(stack);
+        return getName();
     }
 
     @Override
-    public int getQuantity() {
-        return stack.amount;
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+        this.stack.amount = (int) Math.min(quantity, Integer.MAX_VALUE);
     }
 
     @Override
@@ -8,6 +8,7 @@ import com.raoulvdberge.refinedstorage.util.RenderUtils;
 import com.raoulvdberge.refinedstorage.util.StackUtils;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.resources.I18n;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.ModContainer;
@@ -20,7 +21,9 @@ import java.util.stream.Collectors;
 public class GridStackItem implements IGridStack {
     private int hash;
     private ItemStack stack;
+    private long quantity;
     private String cachedName;
+    private int itemId = -1;
     private boolean craftable;
     private boolean displayCraftText;
     private String[] oreIds = null;
@@ -32,10 +35,12 @@ public class GridStackItem implements IGridStack {
 
     public GridStackItem(ItemStack stack) {
         this.stack = stack;
+        this.quantity = stack.getCount();
     }
 
     public GridStackItem(ByteBuf buf) {
         this.stack = StackUtils.readItemStack(buf);
+        this.quantity = stack.getCount();
         this.hash = buf.readInt();
         this.craftable = buf.readBoolean();
 
@@ -60,6 +65,14 @@ public class GridStackItem implements IGridStack {
         return stack;
     }
 
+    public int getItemId() {
+        if (itemId == -1) {
+            itemId = Item.getIdFromItem(stack.getItem());
+        }
+
+        return itemId;
+    }
+
     @Override
     public boolean isCraftable() {
         return craftable;
@@ -75,7 +88,7 @@ public class GridStackItem implements IGridStack {
         this.displayCraftText = displayCraftText;
 
         if (displayCraftText) {
-            this.stack.setCount(1);
+            setQuantity(1);
         }
     }
 
@@ -150,8 +163,13 @@ public class GridStackItem implements IGridStack {
     }
 
     @Override
-    public int getQuantity() {
-        return doesDisplayCraftText() ? 0 : stack.getCount();
+    public long getQuantity() {
+        return doesDisplayCraftText() ? 0 : quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+        this.stack.setCount((int) Math.min(quantity, Integer.MAX_VALUE));
     }
 
     @Override
@@ -165,7 +183,7 @@ public class GridStackItem implements IGridStack {
 
         if (displayCraftText) {
             text = I18n.format("gui.refinedstorage:grid.craft");
-        } else if (stack.getCount() > 1) {
+        } else if (quantity > 1) {
             text = API.instance().getQuantityFormatter().formatWithUnits(getQuantity());
         }
 
@@ -18,7 +18,7 @@ public interface IGridStack {
 
     String getTooltip();
 
-    int getQuantity();
+    long getQuantity();
 
     String getFormattedFullQuantity();
 
@@ -3,10 +3,12 @@ package com.raoulvdberge.refinedstorage.gui.grid.view;
 import com.raoulvdberge.refinedstorage.api.network.grid.IGrid;
 import com.raoulvdberge.refinedstorage.gui.grid.GuiGrid;
 import com.raoulvdberge.refinedstorage.gui.grid.filtering.GridFilterParser;
+import com.raoulvdberge.refinedstorage.gui.grid.filtering.GridSearchIndex;
 import com.raoulvdberge.refinedstorage.gui.grid.sorting.GridSorterDirection;
 import com.raoulvdberge.refinedstorage.gui.grid.sorting.IGridSorter;
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.function.Predicate;
 
@@ -19,6 +21,14 @@ public abstract class GridViewBase implements IGridView {
 
     private List<IGridStack> stacks = new ArrayList<>();
     protected Map<Integer, IGridStack> map = new HashMap<>();
+    protected GridSearchIndex searchIndex = new GridSearchIndex();
+
+    // The filters and the sorting of the last sort(), so a change to a single stack can be applied to the sorted list without sorting again.
+    // Null if the list isn't sorted, for example when the grid isn't active.
+    @Nullable
+    private List<Predicate<IGridStack>> filters;
+    @Nullable
+    private Comparator<IGridStack> comparator;
 
     public GridViewBase(GuiGrid gui, IGridSorter defaultSorter, List<IGridSorter> sorters) {
         this.gui = gui;
@@ -31,44 +41,118 @@ public abstract class GridViewBase implements IGridView {
         return stacks;
     }
 
+    @Override
+    public void setStacks(List<IGridStack> stacks) {
+        map.clear();
+        searchIndex.clear();
+
+        // The view has to be sorted again.
+        this.stacks = new ArrayList<>();
+        this.filters = null;
+        this.comparator = null;
+
+        addStacks(stacks);
+    }
+
+    /**
+     * Adds stacks to the view. If the view is sorted, the stacks that pass the filters are merged into the sorted list.
+     *
+     * @param stacks the stacks
+     */
+    @Override
+    public void addStacks(List<IGridStack> stacks) {
+        List<IGridStack> added = new ArrayList<>();
+
+        for (IGridStack stack : stacks) {
+            // Don't let a craftable stack override a normal stack
+            if (stack.doesDisplayCraftText() && map.containsKey(stack.getHash())) {
+                continue;
+            }
+
+            IGridStack previous = map.put(stack.getHash(), stack);
+
+            if (previous != null) {
+                removeFromView(previous);
+
+                searchIndex.remove(previous);
+            }
+
+            searchIndex.add(stack);
+
+            if (comparator != null && isVisible(stack)) {
+                added.add(stack);
+            }
+        }
+
+        if (added.isEmpty()) {
+            return;
+        }
+
+        added.sort(comparator);
+
+        List<IGridStack> merged = new ArrayList<>(this.stacks.size() + added.size());
+
+        int i = 0;
+        int j = 0;
+
+        while (i < this.stacks.size() && j < added.size()) {
+            if (comparator.compare(added.get(j), this.stacks.get(i)) < 0) {
+                merged.add(added.get(j++));
+            } else {
+                merged.add(this.stacks.get(i++));
+            }
+        }
+
+        merged.addAll(this.stacks.subList(i, this.stacks.size()));
+        merged.addAll(added.subList(j, added.size()));
+
+        this.stacks = merged;
+
+        onChangesApplied();
+    }
+
     @Override
     public void sort() {
         List<IGridStack> stacks = new ArrayList<>();
 
-        if (gui.getGrid().isActive()) {
-            stacks.addAll(map.values());
+        this.filters = null;
+        this.comparator = null;
 
+        if (gui.getGrid().isActive()) {
             IGrid grid = gui.getGrid();
 
-            List<Predicate<IGridStack>> filters = GridFilterParser.getFilters(
+            this.filters = GridFilterParser.getFilters(
                 grid,
                 gui.getSearchField() != null ? gui.getSearchField().getText() : "",
-                (grid.getTabSelected() >= 0 && grid.getTabSelected() < grid.getTabs().size()) ? grid.getTabs().get(grid.getTabSelected()).getFilters() : grid.getFilters()
+                (grid.getTabSelected() >= 0 && grid.getTabSelected() < grid.getTabs().size()) ? grid.getTabs().get(grid.getTabSelected()).getFilters() : grid.getFilters(),
+                searchIndex
             );
 
-            Iterator<IGridStack> it = stacks.iterator();
-
-            while (it.hasNext()) {
-                IGridStack stack = it.next();
-
-                for (Predicate<IGridStack> filter : filters) {
-                    if (!filter.test(stack)) {
-                        it.remove();
+            List<IGridStack> candidates = searchIndex.getCandidates(filters);
 
-                        break;
-                    }
+            for (IGridStack stack : candidates != null ? candidates : map.values()) {
+                // The index can still contain stacks that were replaced in the map.
+                if ((candidates == null || map.get(stack.getHash()) == stack) && isVisible(stack)) {
+                    stacks.add(stack);
                 }
             }
 
             GridSorterDirection sortingDirection = grid.getSortingDirection() == IGrid.SORTING_DIRECTION_DESCENDING ? GridSorterDirection.DESCENDING : GridSorterDirection.ASCENDING;
 
-            stacks.sort((left, right) -> defaultSorter.compare(left, right, sortingDirection));
+            // The same order as sorting with the default sorter and then with every applicable sorter, since those sorts are stable.
+            Comparator<IGridStack> comparator = (left, right) -> defaultSorter.compare(left, right, sortingDirection);
 
             for (IGridSorter sorter : sorters) {
                 if (sorter.isApplicable(grid)) {
-                    stacks.sort((left, right) -> sorter.compare(left, right, sortingDirection));
+                    Comparator<IGridStack> sorterComparator = (left, right) -> sorter.compare(left, right, sortingDirection);
+
+                    comparator = sorterComparator.thenComparing(comparator);
                 }
             }
+
+            stacks.sort(comparator);
+
+            this.comparator = comparator;
         }
 
         this.stacks = stacks;
@@ -76,6 +160,81 @@ public abstract class GridViewBase implements IGridView {
         this.gui.updateScrollbar();
     }
 
+    /**
+     * Removes a stack from the sorted list.
+     * Has to be called before a stack in the map changes in a way that affects filtering or sorting.
+     *
+     * @param stack the stack
+     */
+    protected void removeFromView(IGridStack stack) {
+        // A stack that doesn't pass the filters was never added.
+        if (comparator == null || !isVisible(stack)) {
+            return;
+        }
+
+        int index = Collections.binarySearch(stacks, stack, comparator);
+
+        if (index >= 0) {
+            // Other stacks can compare as equal, so look around for the stack itself.
+            for (int i = index; i >= 0 && comparator.compare(stacks.get(i), stack) == 0; --i) {
+                if (stacks.get(i) == stack) {
+                    stacks.remove(i);
+
+                    return;
+                }
+            }
+
+            for (int i = index + 1; i < stacks.size() && comparator.compare(stacks.get(i), stack) == 0; ++i) {
+                if (stacks.get(i) == stack) {
+                    stacks.remove(i);
+
+                    return;
+                }
+            }
+        }
+
+        // Only happens if a stack changed without going through postChange().
+        stacks.remove(stack);
+    }
+
+    /**
+     * Adds a stack to the sorted list, if it passes the filters.
+     * Has to be called after a stack in the map changed or was added.
+     *
+     * @param stack the stack
+     */
+    protected void addToView(IGridStack stack) {
+        if (comparator == null || !isVisible(stack)) {
+            return;
+        }
+
+        int index = Collections.binarySearch(stacks, stack, comparator);
+
+        stacks.add(index < 0 ? -index - 1 : index, stack);
+    }
+
+    /**
+     * Called after changes were applied with {@link #postChange(IGridStack, int)}.
+     */
+    protected void onChangesApplied() {
+        this.gui.updateScrollbar();
+    }
+
+    private boolean isVisible(IGridStack stack) {
+        for (Predicate<IGridStack> filter : filters) {
+            if (!filter.test(stack)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public GridSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
     @Override
     public void setCanCraft(boolean canCraft) {
         this.canCraft = canCraft;
@@ -12,20 +12,6 @@ public class GridViewFluid extends GridViewBase {
         super(gui, defaultSorter, sorters);
     }
 
-    @Override
-    public void setStacks(List<IGridStack> stacks) {
-        map.clear();
-
-        for (IGridStack stack : stacks) {
-            // Don't let a craftable stack override a normal stack
-            if (stack.doesDisplayCraftText() && map.containsKey(stack.getHash())) {
-                continue;
-            }
-
-            map.put(stack.getHash(), stack);
-        }
-    }
-
     @Override
     public void postChange(IGridStack stack, int delta) {
         if (!(stack instanceof GridStackFluid)) {
@@ -35,27 +21,43 @@ public class GridViewFluid extends GridViewBase {
         GridStackFluid existing = (GridStackFluid) map.get(stack.getHash());
 
         if (existing == null) {
-            ((GridStackFluid) stack).getStack().amount = delta;
+            ((GridStackFluid) stack).setQuantity(delta);
 
             map.put(stack.getHash(), stack);
+            searchIndex.add(stack);
+
+            addToView(stack);
         } else {
-            if (existing.getStack().amount + delta <= 0) {
+            removeFromView(existing);
+
+            boolean removed = false;
+
+            if (existing.getQuantity() + delta <= 0) {
                 if (existing.isCraftable()) {
                     existing.setDisplayCraftText(true);
                 } else {
                     map.remove(existing.getHash());
+                    searchIndex.remove(existing);
+
+                    removed = true;
                 }
             } else {
                 if (existing.doesDisplayCraftText()) {
                     existing.setDisplayCraftText(false);
 
-                    existing.getStack().amount = delta;
+                    existing.setQuantity(delta);
                 } else {
-                    existing.getStack().amount += delta;
+                    existing.setQuantity(existing.getQuantity() + delta);
                 }
             }
 
             existing.setTrackerEntry(stack.getTrackerEntry());
+
+            if (!removed) {
+                addToView(existing);
+            }
         }
+
+        onChangesApplied();
     }
 }
@@ -1,5 +1,6 @@
 package com.raoulvdberge.refinedstorage.gui.grid.view;
 
+import com.raoulvdberge.refinedstorage.gui.grid.filtering.GridSearchIndex;
 import com.raoulvdberge.refinedstorage.gui.grid.stack.IGridStack;
 
 import java.util.List;
@@ -9,6 +10,8 @@ public interface IGridView {
 
     void setStacks(List<IGridStack> stacks);
 
+    void addStacks(List<IGridStack> stacks);
+
     void postChange(IGridStack stack, int delta);
 
     void setCanCraft(boolean canCraft);
@@ -16,4 +19,6 @@ public interface IGridView {
     boolean canCraft();
 
     void sort();
+
+    GridSearchIndex getSearchIndex();
 }
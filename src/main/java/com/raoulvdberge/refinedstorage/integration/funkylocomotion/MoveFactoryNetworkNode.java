@@ -44,7 +44,6 @@ public class MoveFactoryNetworkNode implements IMoveFactory {
         tag.setTag(NBT_TILE, tile.writeToNBT(new NBTTagCompound()));
 
         manager.removeNode(pos); // Avoid inventory dropping
-        manager.markForSaving();
 
         return tag;
     }
@@ -58,7 +57,6 @@ public class MoveFactoryNetworkNode implements IMoveFactory {
         INetworkNodeManager manager = API.instance().getNetworkNodeManager(world);
 
         manager.setNode(pos, node);
-        manager.markForSaving();
 
         Block block = Block.REGISTRY.getObject(new ResourceLocation(tag.getString(NBT_BLOCK)));
         world.setBlockState(pos, block.getStateFromMeta(tag.getInteger(NBT_META)));
@@ -14,5 +14,10 @@ public class ListenerNetworkNode implements Consumer<Integer> {
     @Override
     public void accept(Integer slot) {
         node.markDirty();
+
+        // The contents of an inventory can change the energy usage of the node, like upgrades or disks.
+        if (node.getNetwork() != null) {
+            node.getNetwork().invalidateEnergyUsage();
+        }
     }
 }
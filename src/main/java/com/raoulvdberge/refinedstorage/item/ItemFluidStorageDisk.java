@@ -88,7 +88,6 @@ public class ItemFluidStorageDisk extends ItemBase implements IStorageDiskProvid
                 UUID id = UUID.randomUUID();
 
                 API.instance().getStorageDiskManager(world).set(id, API.instance().createDefaultFluidDisk(world, getCapacity(stack)));
-                API.instance().getStorageDiskManager(world).markForSaving();
 
                 setId(stack, id);
             }
@@ -134,7 +133,6 @@ public class ItemFluidStorageDisk extends ItemBase implements IStorageDiskProvid
                 }
 
                 API.instance().getStorageDiskManager(world).remove(getId(diskStack));
-                API.instance().getStorageDiskManager(world).markForSaving();
 
                 return new ActionResult<>(EnumActionResult.SUCCESS, new ItemStack(RSItems.STORAGE_HOUSING));
             }
@@ -89,7 +89,6 @@ public class ItemStorageDisk extends ItemBase implements IStorageDiskProvider {
                 UUID id = UUID.randomUUID();
 
                 API.instance().getStorageDiskManager(world).set(id, API.instance().createDefaultItemDisk(world, getCapacity(stack)));
-                API.instance().getStorageDiskManager(world).markForSaving();
 
                 setId(stack, id);
             }
@@ -135,7 +134,6 @@ public class ItemStorageDisk extends ItemBase implements IStorageDiskProvider {
                 }
 
                 API.instance().getStorageDiskManager(world).remove(getId(diskStack));
-                API.instance().getStorageDiskManager(world).markForSaving();
 
                 return new ActionResult<>(EnumActionResult.SUCCESS, new ItemStack(RSItems.STORAGE_HOUSING));
             }
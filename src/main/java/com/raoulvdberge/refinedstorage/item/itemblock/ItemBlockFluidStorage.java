@@ -83,7 +83,6 @@ public class ItemBlockFluidStorage extends ItemBlockBase {
 
                 if (disk != null) {
                     API.instance().getStorageDiskManager(world).remove(diskId);
-                    API.instance().getStorageDiskManager(world).markForSaving();
                 }
 
                 return new ActionResult<>(EnumActionResult.SUCCESS, new ItemStack(RSBlocks.MACHINE_CASING));
@@ -10,89 +10,269 @@ import com.raoulvdberge.refinedstorage.gui.GuiBase;
 import com.raoulvdberge.refinedstorage.gui.GuiCraftingMonitor;
 import com.raoulvdberge.refinedstorage.tile.craftingmonitor.ICraftingMonitor;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Sends the tasks that changed since the last message to the same player, instead of every task.
+ * Only the elements of a task that changed are sent, the client merges them into the elements it already has.
+ */
 public class MessageCraftingMonitorElements implements IMessage, IMessageHandler<MessageCraftingMonitorElements, IMessage> {
-    private ICraftingMonitor craftingMonitor;
+    private ByteBuf data;
 
-    private List<IGridTab> tasks = new ArrayList<>();
+    private boolean full;
+    private List<UUID> removed = new ArrayList<>();
+    private List<TaskChange> changed = new ArrayList<>();
 
     public MessageCraftingMonitorElements() {
     }
 
-    public MessageCraftingMonitorElements(ICraftingMonitor craftingMonitor) {
-        this.craftingMonitor = craftingMonitor;
+    /**
+     * @param craftingMonitor the crafting monitor
+     * @param sentTasks       the tasks that were sent to the player before, this is updated with what this message sends
+     */
+    public MessageCraftingMonitorElements(ICraftingMonitor craftingMonitor, Map<UUID, SentTask> sentTasks) {
+        // The message is built here instead of in toBytes, so it's built on the server thread.
+        this.data = Unpooled.buffer();
+
+        data.writeBoolean(sentTasks.isEmpty());
+
+        Set<UUID> removedIds = new HashSet<>(sentTasks.keySet());
+
+        for (ICraftingTask task : craftingMonitor.getTasks()) {
+            removedIds.remove(task.getId());
+        }
+
+        data.writeInt(removedIds.size());
+
+        for (UUID id : removedIds) {
+            sentTasks.remove(id);
+
+            ByteBufUtils.writeUTF8String(data, id.toString());
+        }
+
+        List<ByteBuf> changedTasks = new ArrayList<>();
+
+        for (ICraftingTask task : craftingMonitor.getTasks()) {
+            SentTask sentTask = sentTasks.get(task.getId());
+
+            boolean isNew = sentTask == null;
+            if (isNew) {
+                sentTasks.put(task.getId(), sentTask = new SentTask());
+            }
+
+            List<ICraftingMonitorElement> elements = task.getCraftingMonitorElements();
+
+            Map<Integer, byte[]> changedElements = new HashMap<>();
+
+            for (int i = 0; i < elements.size(); ++i) {
+                ByteBuf elementBuf = Unpooled.buffer();
+
+                ByteBufUtils.writeUTF8String(elementBuf, elements.get(i).getId());
+                elements.get(i).write(elementBuf);
+
+                byte[] element = new byte[elementBuf.readableBytes()];
+                elementBuf.readBytes(element);
+
+                if (i >= sentTask.elements.size()) {
+                    sentTask.elements.add(element);
+
+                    changedElements.put(i, element);
+                } else if (!Arrays.equals(sentTask.elements.get(i), element)) {
+                    sentTask.elements.set(i, element);
+
+                    changedElements.put(i, element);
+                }
+            }
+
+            boolean elementsRemoved = sentTask.elements.size() > elements.size();
+
+            while (sentTask.elements.size() > elements.size()) {
+                sentTask.elements.remove(sentTask.elements.size() - 1);
+            }
+
+            int percentage = task.getCompletionPercentage();
+
+            if (!isNew && !elementsRemoved && changedElements.isEmpty() && sentTask.percentage == percentage) {
+                continue;
+            }
+
+            sentTask.percentage = percentage;
+
+            ByteBuf taskBuf = Unpooled.buffer();
+
+            ByteBufUtils.writeUTF8String(taskBuf, task.getId().toString());
+
+            taskBuf.writeBoolean(isNew);
+            if (isNew) {
+                ByteBufUtils.writeTag(taskBuf, task.getRequested().writeToNbt());
+            }
+
+            taskBuf.writeInt(task.getQuantity());
+            taskBuf.writeLong(task.getExecutionStarted());
+            taskBuf.writeInt(percentage);
+
+            taskBuf.writeInt(elements.size());
+            taskBuf.writeInt(changedElements.size());
+
+            for (Map.Entry<Integer, byte[]> entry : changedElements.entrySet()) {
+                taskBuf.writeInt(entry.getKey());
+                taskBuf.writeBytes(entry.getValue());
+            }
+
+            changedTasks.add(taskBuf);
+        }
+
+        data.writeInt(changedTasks.size());
+
+        for (ByteBuf taskBuf : changedTasks) {
+            data.writeBytes(taskBuf);
+        }
+    }
+
+    /**
+     * @return true if this message doesn't change anything on the client
+     */
+    public boolean isEmpty() {
+        // The "full" flag, the amount of removed tasks and the amount of changed tasks.
+        return data.readableBytes() == 1 + 4 + 4 && !data.getBoolean(0);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
-        int size = buf.readInt();
+        full = buf.readBoolean();
 
-        for (int i = 0; i < size; ++i) {
-            UUID id = UUID.fromString(ByteBufUtils.readUTF8String(buf));
+        int removedCount = buf.readInt();
 
-            ICraftingRequestInfo requested = null;
-            try {
-                requested = API.instance().createCraftingRequestInfo(ByteBufUtils.readTag(buf));
-            } catch (CraftingTaskReadException e) {
-                e.printStackTrace();
+        for (int i = 0; i < removedCount; ++i) {
+            removed.add(UUID.fromString(ByteBufUtils.readUTF8String(buf)));
+        }
+
+        int changedCount = buf.readInt();
+
+        for (int i = 0; i < changedCount; ++i) {
+            TaskChange change = new TaskChange();
+
+            change.id = UUID.fromString(ByteBufUtils.readUTF8String(buf));
+
+            if (buf.readBoolean()) {
+                try {
+                    change.requested = API.instance().createCraftingRequestInfo(ByteBufUtils.readTag(buf));
+                } catch (CraftingTaskReadException e) {
+                    e.printStackTrace();
+                }
             }
 
-            int qty = buf.readInt();
-            long executionStarted = buf.readLong();
-            int percentage = buf.readInt();
+            change.qty = buf.readInt();
+            change.executionStarted = buf.readLong();
+            change.percentage = buf.readInt();
+
+            change.elementCount = buf.readInt();
 
-            List<ICraftingMonitorElement> elements = new ArrayList<>();
+            int changedElementCount = buf.readInt();
 
-            int elementCount = buf.readInt();
+            for (int j = 0; j < changedElementCount; ++j) {
+                int index = buf.readInt();
 
-            for (int j = 0; j < elementCount; ++j) {
                 Function<ByteBuf, ICraftingMonitorElement> factory = API.instance().getCraftingMonitorElementRegistry().get(ByteBufUtils.readUTF8String(buf));
 
                 if (factory != null) {
-                    elements.add(factory.apply(buf));
+                    change.elements.put(index, factory.apply(buf));
                 }
             }
 
-            tasks.add(new GuiCraftingMonitor.CraftingMonitorTask(id, requested, qty, executionStarted, percentage, elements));
+            changed.add(change);
         }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
-        buf.writeInt(craftingMonitor.getTasks().size());
+        buf.writeBytes(data, data.readerIndex(), data.readableBytes());
+    }
 
-        for (ICraftingTask task : craftingMonitor.getTasks()) {
-            ByteBufUtils.writeUTF8String(buf, task.getId().toString());
-            ByteBufUtils.writeTag(buf, task.getRequested().writeToNbt());
-            buf.writeInt(task.getQuantity());
-            buf.writeLong(task.getExecutionStarted());
-            buf.writeInt(task.getCompletionPercentage());
+    private List<IGridTab> merge(List<IGridTab> currentTasks) {
+        List<IGridTab> tasks = full ? new ArrayList<>() : new ArrayList<>(currentTasks);
 
-            List<ICraftingMonitorElement> elements = task.getCraftingMonitorElements();
+        Iterator<IGridTab> it = tasks.iterator();
+        while (it.hasNext()) {
+            if (removed.contains(((GuiCraftingMonitor.CraftingMonitorTask) it.next()).getId())) {
+                it.remove();
+            }
+        }
+
+        for (TaskChange change : changed) {
+            GuiCraftingMonitor.CraftingMonitorTask task = null;
+            int index = -1;
+
+            for (int i = 0; i < tasks.size(); ++i) {
+                if (((GuiCraftingMonitor.CraftingMonitorTask) tasks.get(i)).getId().equals(change.id)) {
+                    task = (GuiCraftingMonitor.CraftingMonitorTask) tasks.get(i);
+                    index = i;
+
+                    break;
+                }
+            }
+
+            List<ICraftingMonitorElement> elements = new ArrayList<>(change.elementCount);
 
-            buf.writeInt(elements.size());
+            for (int i = 0; i < change.elementCount; ++i) {
+                ICraftingMonitorElement element = change.elements.get(i);
 
-            for (ICraftingMonitorElement element : elements) {
-                ByteBufUtils.writeUTF8String(buf, element.getId());
+                if (element == null && task != null && i < task.getElements().size()) {
+                    element = task.getElements().get(i);
+                }
 
-                element.write(buf);
+                if (element != null) {
+                    elements.add(element);
+                }
+            }
+
+            if (task == null) {
+                tasks.add(new GuiCraftingMonitor.CraftingMonitorTask(change.id, change.requested, change.qty, change.executionStarted, change.percentage, elements));
+            } else {
+                tasks.set(index, new GuiCraftingMonitor.CraftingMonitorTask(change.id, change.requested != null ? change.requested : task.getRequested(), change.qty, change.executionStarted, change.percentage, elements));
             }
         }
+
+        return tasks;
     }
 
     @Override
     public IMessage onMessage(MessageCraftingMonitorElements message, MessageContext ctx) {
-        GuiBase.executeLater(GuiCraftingMonitor.class, craftingMonitor -> craftingMonitor.setTasks(message.tasks));
+        GuiBase.executeLater(GuiCraftingMonitor.class, craftingMonitor -> craftingMonitor.setTasks(message.merge(craftingMonitor.getTasks())));
 
         return null;
     }
+
+    /**
+     * What was last sent to a player about a task.
+     */
+    public static class SentTask {
+        private int percentage;
+        private List<byte[]> elements = new ArrayList<>();
+    }
+
+    private static class TaskChange {
+        private UUID id;
+        private ICraftingRequestInfo requested;
+        private int qty;
+        private long executionStarted;
+        private int percentage;
+        private int elementCount;
+        private Map<Integer, ICraftingMonitorElement> elements = new HashMap<>();
+    }
 }
@@ -16,15 +16,22 @@ import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import org.apache.commons.lang3.tuple.Pair;
 
 import javax.annotation.Nullable;
+import java.util.LinkedList;
+import java.util.List;
 
 public class MessageGridFluidDelta implements IMessage, IMessageHandler<MessageGridFluidDelta, IMessage> {
     @Nullable
     private INetwork network;
     private IStorageTracker<FluidStack> storageTracker;
+
+    private List<Pair<FluidStack, Integer>> deltas;
+    @Nullable
     private FluidStack stack;
     private int delta;
 
+    @Nullable
     private GridStackFluid gridStack;
+    private List<Pair<GridStackFluid, Integer>> gridStacks;
 
     public MessageGridFluidDelta() {
     }
@@ -36,16 +43,50 @@ public class MessageGridFluidDelta implements IMessage, IMessageHandler<MessageG
         this.delta = delta;
     }
 
+    public MessageGridFluidDelta(@Nullable INetwork network, IStorageTracker<FluidStack> storageTracker, List<Pair<FluidStack, Integer>> deltas) {
+        this.network = network;
+        this.storageTracker = storageTracker;
+        this.deltas = deltas;
+    }
+
     @Override
     public void fromBytes(ByteBuf buf) {
+        int size = buf.readInt();
+
+        if (size == 1) {
+            gridStack = readGridStack(buf);
+            delta = buf.readInt();
+        } else {
+            gridStacks = new LinkedList<>();
+
+            for (int i = 0; i < size; ++i) {
+                gridStacks.add(Pair.of(readGridStack(buf), buf.readInt()));
+            }
+        }
+    }
+
+    private GridStackFluid readGridStack(ByteBuf buf) {
         Pair<Integer, FluidStack> hashAndFluidStack = StackUtils.readFluidStackAndHash(buf);
 
-        gridStack = new GridStackFluid(hashAndFluidStack.getLeft(), hashAndFluidStack.getRight(), buf.readBoolean() ? new StorageTrackerEntry(buf) : null, buf.readBoolean(), false);
-        delta = buf.readInt();
+        return new GridStackFluid(hashAndFluidStack.getLeft(), hashAndFluidStack.getRight(), buf.readBoolean() ? new StorageTrackerEntry(buf) : null, buf.readBoolean(), false);
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
+        if (stack != null) {
+            buf.writeInt(1);
+
+            writeDelta(buf, stack, delta);
+        } else {
+            buf.writeInt(deltas.size());
+
+            for (Pair<FluidStack, Integer> delta : deltas) {
+                writeDelta(buf, delta.getLeft(), delta.getRight());
+            }
+        }
+    }
+
+    private void writeDelta(ByteBuf buf, FluidStack stack, int delta) {
         StackUtils.writeFluidStackAndHash(buf, stack);
 
         IStorageTracker.IStorageTrackerEntry entry = storageTracker.get(stack);
@@ -67,8 +108,11 @@ public class MessageGridFluidDelta implements IMessage, IMessageHandler<MessageG
     @Override
     public IMessage onMessage(MessageGridFluidDelta message, MessageContext ctx) {
         GuiBase.executeLater(GuiGrid.class, grid -> {
-            grid.getView().postChange(message.gridStack, message.delta);
-            grid.getView().sort();
+            if (message.gridStack != null) {
+                grid.getView().postChange(message.gridStack, message.delta);
+            } else {
+                message.gridStacks.forEach(p -> grid.getView().postChange(p.getLeft(), p.getRight()));
+            }
         });
 
         return null;
@@ -1,8 +1,10 @@
 package com.raoulvdberge.refinedstorage.network;
 
+import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageTracker;
+import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.apiimpl.storage.StorageTrackerEntry;
 import com.raoulvdberge.refinedstorage.gui.GuiBase;
 import com.raoulvdberge.refinedstorage.gui.grid.GuiGrid;
@@ -19,92 +21,134 @@ import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * Sends the contents of a fluid grid in pages, see {@link MessageGridItemUpdate}.
+ */
 public class MessageGridFluidUpdate implements IMessage, IMessageHandler<MessageGridFluidUpdate, IMessage> {
-    private INetwork network;
+    private List<Consumer<ByteBuf>> stackWriters;
     private boolean canCraft;
+    private boolean first;
     private List<IGridStack> stacks = new ArrayList<>();
-    private Consumer<ByteBuf> sendHandler;
 
     public MessageGridFluidUpdate() {
     }
 
-    public MessageGridFluidUpdate(INetwork network, boolean canCraft) {
-        this(buf -> {
-            int size = network.getFluidStorageCache().getList().getStacks().size();
+    private MessageGridFluidUpdate(List<Consumer<ByteBuf>> stackWriters, boolean canCraft, boolean first) {
+        this.stackWriters = stackWriters;
+        this.canCraft = canCraft;
+        this.first = first;
+    }
 
-            for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
-                size += pattern.getFluidOutputs().size();
-            }
+    public MessageGridFluidUpdate(List<Consumer<ByteBuf>> stackWriters, boolean canCraft) {
+        this(stackWriters, canCraft, true);
+    }
+
+    /**
+     * Takes the current contents of the network, the pages don't read from the network anymore when they are sent later on.
+     *
+     * @param network  the network
+     * @param canCraft whether the player can request crafting
+     * @return the pages, to be sent in order
+     */
+    public static List<MessageGridFluidUpdate> createPages(INetwork network, boolean canCraft) {
+        List<Consumer<ByteBuf>> stackWriters = new ArrayList<>();
+
+        IStackList<FluidStack> list = network.getFluidStorageCache().getList();
 
-            buf.writeInt(size);
+        for (FluidStack stack : list.getStacks()) {
+            FluidStack copy = stack.copy();
+            long count = list.getCount(stack);
+            boolean craftable = network.getCraftingManager().getPattern(stack) != null;
 
-            for (FluidStack stack : network.getFluidStorageCache().getList().getStacks()) {
-                StackUtils.writeFluidStackAndHash(buf, stack);
+            stackWriters.add(buf -> writeStack(buf, network.getFluidStorageTracker(), copy, count, craftable, false));
+        }
 
-                IStorageTracker.IStorageTrackerEntry entry = network.getFluidStorageTracker().get(stack);
-                buf.writeBoolean(entry != null);
-                if (entry != null) {
-                    buf.writeLong(entry.getTime());
-                    ByteBufUtils.writeUTF8String(buf, entry.getName());
-                }
+        for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
+            for (FluidStack output : pattern.getFluidOutputs()) {
+                FluidStack copy = output.copy();
 
-                buf.writeBoolean(network.getCraftingManager().getPattern(stack) != null);
-                buf.writeBoolean(false);
+                stackWriters.add(buf -> writeStack(buf, network.getFluidStorageTracker(), copy, copy.amount, true, true));
             }
+        }
+
+        int pageSize = RS.INSTANCE.config.gridSyncPageSize;
 
-            for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
-                for (FluidStack stack : pattern.getFluidOutputs()) {
-                    StackUtils.writeFluidStackAndHash(buf, stack);
+        if (pageSize <= 0 || stackWriters.size() <= pageSize) {
+            return Collections.singletonList(new MessageGridFluidUpdate(stackWriters, canCraft));
+        }
 
-                    IStorageTracker.IStorageTrackerEntry entry = network.getFluidStorageTracker().get(stack);
-                    buf.writeBoolean(entry != null);
-                    if (entry != null) {
-                        buf.writeLong(entry.getTime());
-                        ByteBufUtils.writeUTF8String(buf, entry.getName());
-                    }
+        List<MessageGridFluidUpdate> pages = new ArrayList<>();
 
-                    buf.writeBoolean(network.getCraftingManager().getPattern(stack) != null);
-                    buf.writeBoolean(true);
-                }
-            }
-        }, canCraft);
+        for (int i = 0; i < stackWriters.size(); i += pageSize) {
+            List<Consumer<ByteBuf>> page = stackWriters.subList(i, Math.min(i + pageSize, stackWriters.size()));
+
+            pages.add(new MessageGridFluidUpdate(page, canCraft, i == 0));
+        }
+
+        return pages;
     }
 
-    public MessageGridFluidUpdate(Consumer<ByteBuf> sendHandler, boolean canCraft) {
-        this.sendHandler = sendHandler;
-        this.canCraft = canCraft;
+    public static void writeStack(ByteBuf buf, IStorageTracker<FluidStack> storageTracker, FluidStack stack, long quantity, boolean craftable, boolean displayCraftText) {
+        StackUtils.writeFluidStackAndHash(buf, stack);
+
+        IStorageTracker.IStorageTrackerEntry entry = storageTracker.get(stack);
+        buf.writeBoolean(entry != null);
+        if (entry != null) {
+            buf.writeLong(entry.getTime());
+            ByteBufUtils.writeUTF8String(buf, entry.getName());
+        }
+
+        buf.writeBoolean(craftable);
+        buf.writeBoolean(displayCraftText);
+
+        // The amount of the stack itself is clamped, the full amount follows it.
+        buf.writeLong(quantity);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
         canCraft = buf.readBoolean();
+        first = buf.readBoolean();
 
         int items = buf.readInt();
 
         for (int i = 0; i < items; ++i) {
             Pair<Integer, FluidStack> hashAndFluidStack = StackUtils.readFluidStackAndHash(buf);
 
-            this.stacks.add(new GridStackFluid(hashAndFluidStack.getLeft(), hashAndFluidStack.getRight(), buf.readBoolean() ? new StorageTrackerEntry(buf) : null, buf.readBoolean(), buf.readBoolean()));
+            GridStackFluid stack = new GridStackFluid(hashAndFluidStack.getLeft(), hashAndFluidStack.getRight(), buf.readBoolean() ? new StorageTrackerEntry(buf) : null, buf.readBoolean(), buf.readBoolean());
+
+            stack.setQuantity(buf.readLong());
+
+            this.stacks.add(stack);
         }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
         buf.writeBoolean(canCraft);
+        buf.writeBoolean(first);
 
-        sendHandler.accept(buf);
+        buf.writeInt(stackWriters.size());
+
+        stackWriters.forEach(writer -> writer.accept(buf));
     }
 
     @Override
     public IMessage onMessage(MessageGridFluidUpdate message, MessageContext ctx) {
         GuiBase.executeLater(GuiGrid.class, grid -> {
-            grid.setView(new GridViewFluid(grid, GuiGrid.getDefaultSorter(), GuiGrid.getSorters()));
-            grid.getView().setCanCraft(message.canCraft);
-            grid.getView().setStacks(message.stacks);
-            grid.getView().sort();
+            if (message.first) {
+                grid.setView(new GridViewFluid(grid, GuiGrid.getDefaultSorter(), GuiGrid.getSorters()));
+                grid.getView().setCanCraft(message.canCraft);
+                grid.getView().setStacks(message.stacks);
+                grid.getView().sort();
+            } else {
+                // Merged into the sorted view, so the stacks show up as the pages come in.
+                grid.getView().addStacks(message.stacks);
+            }
         });
 
         return null;
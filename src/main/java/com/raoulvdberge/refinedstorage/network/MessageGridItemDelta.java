@@ -105,8 +105,6 @@ public class MessageGridItemDelta implements IMessage, IMessageHandler<MessageGr
             } else {
                 message.gridStacks.forEach(p -> grid.getView().postChange(p.getLeft(), p.getRight()));
             }
-
-            grid.getView().sort();
         });
 
         return null;
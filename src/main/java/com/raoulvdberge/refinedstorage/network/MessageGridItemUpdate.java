@@ -1,8 +1,10 @@
 package com.raoulvdberge.refinedstorage.network;
 
+import com.raoulvdberge.refinedstorage.RS;
 import com.raoulvdberge.refinedstorage.api.autocrafting.ICraftingPattern;
 import com.raoulvdberge.refinedstorage.api.network.INetwork;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageTracker;
+import com.raoulvdberge.refinedstorage.api.util.IStackList;
 import com.raoulvdberge.refinedstorage.gui.GuiBase;
 import com.raoulvdberge.refinedstorage.gui.grid.GuiGrid;
 import com.raoulvdberge.refinedstorage.gui.grid.stack.GridStackItem;
@@ -16,86 +18,136 @@ import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
 
+/**
+ * Sends the contents of a grid, split up in pages of at most {@link com.raoulvdberge.refinedstorage.RSConfig#gridSyncPageSize} stacks.
+ * The first page replaces the view on the client, the next pages are merged into it.
+ * The listener of the grid sends a page every tick, see {@link com.raoulvdberge.refinedstorage.apiimpl.storage.StorageCacheListenerGridItem}.
+ */
 public class MessageGridItemUpdate implements IMessage, IMessageHandler<MessageGridItemUpdate, IMessage> {
-    private Consumer<ByteBuf> sendHandler;
+    private List<Consumer<ByteBuf>> stackWriters;
     private boolean canCraft;
+    private boolean first;
     private List<IGridStack> stacks = new ArrayList<>();
 
     public MessageGridItemUpdate() {
     }
 
-    public MessageGridItemUpdate(INetwork network, boolean canCraft) {
-        this.sendHandler = (buf) -> {
-            int size = network.getItemStorageCache().getList().getStacks().size();
+    private MessageGridItemUpdate(List<Consumer<ByteBuf>> stackWriters, boolean canCraft, boolean first) {
+        this.stackWriters = stackWriters;
+        this.canCraft = canCraft;
+        this.first = first;
+    }
 
-            for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
-                size += pattern.getOutputs().size();
-            }
+    public MessageGridItemUpdate(List<Consumer<ByteBuf>> stackWriters, boolean canCraft) {
+        this(stackWriters, canCraft, true);
+    }
 
-            buf.writeInt(size);
+    /**
+     * Takes the current contents of the network, the pages don't read from the network anymore when they are sent later on.
+     *
+     * @param network  the network
+     * @param canCraft whether the player can request crafting
+     * @return the pages, to be sent in order
+     */
+    public static List<MessageGridItemUpdate> createPages(INetwork network, boolean canCraft) {
+        List<Consumer<ByteBuf>> stackWriters = new ArrayList<>();
 
-            for (ItemStack stack : network.getItemStorageCache().getList().getStacks()) {
-                StackUtils.writeItemStack(buf, stack, network, false);
+        IStackList<ItemStack> list = network.getItemStorageCache().getList();
 
-                IStorageTracker.IStorageTrackerEntry entry = network.getItemStorageTracker().get(stack);
-                buf.writeBoolean(entry != null);
-                if (entry != null) {
-                    buf.writeLong(entry.getTime());
-                    ByteBufUtils.writeUTF8String(buf, entry.getName());
-                }
-            }
+        for (ItemStack stack : list.getStacks()) {
+            ItemStack copy = stack.copy();
+            long count = list.getCount(stack);
+
+            stackWriters.add(buf -> writeStack(buf, network, network.getItemStorageTracker(), copy, count, false));
+        }
 
-            for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
-                for (ItemStack output : pattern.getOutputs()) {
-                    StackUtils.writeItemStack(buf, output, network, true);
-
-                    IStorageTracker.IStorageTrackerEntry entry = network.getItemStorageTracker().get(output);
-                    buf.writeBoolean(entry != null);
-                    if (entry != null) {
-                        buf.writeLong(entry.getTime());
-                        ByteBufUtils.writeUTF8String(buf, entry.getName());
-                    }
-                }
+        for (ICraftingPattern pattern : network.getCraftingManager().getPatterns()) {
+            for (ItemStack output : pattern.getOutputs()) {
+                ItemStack copy = output.copy();
+
+                stackWriters.add(buf -> writeStack(buf, network, network.getItemStorageTracker(), copy, copy.getCount(), true));
             }
-        };
+        }
 
-        this.canCraft = canCraft;
+        int pageSize = RS.INSTANCE.config.gridSyncPageSize;
+
+        if (pageSize <= 0 || stackWriters.size() <= pageSize) {
+            return Collections.singletonList(new MessageGridItemUpdate(stackWriters, canCraft));
+        }
+
+        List<MessageGridItemUpdate> pages = new ArrayList<>();
+
+        for (int i = 0; i < stackWriters.size(); i += pageSize) {
+            List<Consumer<ByteBuf>> page = stackWriters.subList(i, Math.min(i + pageSize, stackWriters.size()));
+
+            pages.add(new MessageGridItemUpdate(page, canCraft, i == 0));
+        }
+
+        return pages;
     }
 
-    public MessageGridItemUpdate(Consumer<ByteBuf> sendHandler, boolean canCraft) {
-        this.sendHandler = sendHandler;
-        this.canCraft = canCraft;
+    public static void writeStack(ByteBuf buf, @Nullable INetwork network, IStorageTracker<ItemStack> storageTracker, ItemStack stack, long quantity, boolean displayCraftText) {
+        StackUtils.writeItemStack(buf, stack, network, displayCraftText);
+
+        IStorageTracker.IStorageTrackerEntry entry = storageTracker.get(stack);
+        buf.writeBoolean(entry != null);
+        if (entry != null) {
+            buf.writeLong(entry.getTime());
+            ByteBufUtils.writeUTF8String(buf, entry.getName());
+        }
+
+        // The count of the stack itself is clamped, the full count follows it.
+        buf.writeLong(quantity);
     }
 
     @Override
     public void fromBytes(ByteBuf buf) {
         canCraft = buf.readBoolean();
+        first = buf.readBoolean();
 
         int items = buf.readInt();
 
         for (int i = 0; i < items; ++i) {
-            this.stacks.add(new GridStackItem(buf));
+            GridStackItem stack = new GridStackItem(buf);
+
+            long quantity = buf.readLong();
+
+            if (!stack.doesDisplayCraftText()) {
+                stack.setQuantity(quantity);
+            }
+
+            this.stacks.add(stack);
         }
     }
 
     @Override
     public void toBytes(ByteBuf buf) {
         buf.writeBoolean(canCraft);
+        buf.writeBoolean(first);
+
+        buf.writeInt(stackWriters.size());
 
-        sendHandler.accept(buf);
+        stackWriters.forEach(writer -> writer.accept(buf));
     }
 
     @Override
     public IMessage onMessage(MessageGridItemUpdate message, MessageContext ctx) {
         GuiBase.executeLater(GuiGrid.class, grid -> {
-            grid.setView(new GridViewItem(grid, GuiGrid.getDefaultSorter(), GuiGrid.getSorters()));
-            grid.getView().setCanCraft(message.canCraft);
-            grid.getView().setStacks(message.stacks);
-            grid.getView().sort();
+            if (message.first) {
+                grid.setView(new GridViewItem(grid, GuiGrid.getDefaultSorter(), GuiGrid.getSorters()));
+                grid.getView().setCanCraft(message.canCraft);
+                grid.getView().setStacks(message.stacks);
+                grid.getView().sort();
+            } else {
+                // Merged into the sorted view, so the stacks show up as the pages come in.
+                grid.getView().addStacks(message.stacks);
+            }
         });
 
         return null;
@@ -22,6 +22,7 @@ import com.raoulvdberge.refinedstorage.api.storage.IStorageCache;
 import com.raoulvdberge.refinedstorage.api.storage.IStorageTracker;
 import com.raoulvdberge.refinedstorage.api.storage.externalstorage.IStorageExternal;
 import com.raoulvdberge.refinedstorage.api.util.Action;
+import com.raoulvdberge.refinedstorage.apiimpl.API;
 import com.raoulvdberge.refinedstorage.apiimpl.autocrafting.CraftingManager;
 import com.raoulvdberge.refinedstorage.apiimpl.energy.Energy;
 import com.raoulvdberge.refinedstorage.apiimpl.network.NetworkNodeGraph;
@@ -65,8 +66,11 @@ import net.minecraftforge.items.ItemHandlerHelper;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import static com.raoulvdberge.refinedstorage.capability.CapabilityNetworkNodeProxy.NETWORK_NODE_PROXY_CAPABILITY;
@@ -144,6 +148,12 @@ public class TileController extends TileBase implements ITickable, INetwork, IRe
     private final IEnergy energy = new Energy(RS.INSTANCE.config.controllerCapacity);
     private final EnergyProxy energyProxy = new EnergyProxy(this.energy, RS.INSTANCE.config.controllerMaxReceive, 0);
 
+    // Calculated again when the graph changes, when a node starts or stops updating or when a node reports that its usage changed.
+    private int energyUsage;
+    private Map<String, Integer> energyUsagePerType = Collections.emptyMap();
+    private boolean energyUsageInvalid = true;
+    private boolean energyUsageCanRun;
+
     private boolean throttlingDisabled = true; // Will be enabled after first update
     private boolean couldRun;
     private int ticksSinceUpdateChanged;
@@ -172,6 +182,7 @@ public class TileController extends TileBase implements ITickable, INetwork, IRe
         });
 
         nodeGraph.addListener(() -> dataManager.sendParameterToWatchers(TileController.NODES));
+        nodeGraph.addListener(this::invalidateEnergyUsage);
     }
 
     @Override
@@ -241,6 +252,11 @@ public class TileController extends TileBase implements ITickable, INetwork, IRe
 
                     nodeGraph.invalidate(Action.PERFORM, world, pos);
                     securityManager.invalidate();
+
+                    // Whether nodes can update depends on whether the controller can run, so sleeping nodes have to notice this.
+                    for (INetworkNode node : nodeGraph.all()) {
+                        API.instance().getNetworkNodeManager(node.getWorld()).wakeUp(node.getPos());
+                    }
                 }
             } else {
                 ticksSinceUpdateChanged = 0;
@@ -253,6 +269,9 @@ public class TileController extends TileBase implements ITickable, INetwork, IRe
 
                 WorldUtils.updateBlock(world, pos);
             }
+
+            itemStorage.flush();
+            fluidStorage.flush();
         }
     }
 
@@ -613,15 +632,43 @@ public class TileController extends TileBase implements ITickable, INetwork, IRe
 
     @Override
     public int getEnergyUsage() {
-        int usage = RS.INSTANCE.config.controllerBaseUsage;
+        // Whether nodes can update depends on whether the controller can run, so that has to be checked every time.
+        boolean canRun = canRun();
 
-        for (INetworkNode node : nodeGraph.all()) {
-            if (node.canUpdate()) {
-                usage += node.getEnergyUsage();
+        if (energyUsageInvalid || energyUsageCanRun != canRun) {
+            int usage = RS.INSTANCE.config.controllerBaseUsage;
+            Map<String, Integer> usagePerType = new HashMap<>();
+
+            for (INetworkNode node : nodeGraph.all()) {
+                if (node.canUpdate()) {
+                    int nodeUsage = node.getEnergyUsage();
+
+                    usage += nodeUsage;
+                    usagePerType.merge(node.getId(), nodeUsage, Integer::sum);
+                }
             }
+
+            this.energyUsage = usage;
+            this.energyUsagePerType = usagePerType;
+            this.energyUsageInvalid = false;
+            this.energyUsageCanRun = canRun;
         }
 
-        return usage;
+        return energyUsage;
+    }
+
+    @Override
+    public void invalidateEnergyUsage() {
+        this.energyUsageInvalid = true;
+    }
+
+    /**
+     * @return the energy usage of the nodes that can update, per node id, without the base usage of the controller
+     */
+    public Map<String, Integer> getEnergyUsagePerType() {
+        getEnergyUsage();
+
+        return Collections.unmodifiableMap(energyUsagePerType);
     }
 
     @Nonnull
@@ -105,7 +105,6 @@ public abstract class TileNode<N extends NetworkNode> extends TileBase implement
 
         if (node == null || !node.getId().equals(getNodeId())) {
             manager.setNode(pos, node = createNode(world, pos));
-            manager.markForSaving();
         }
 
         OneSixMigrationHelper.removalHook();